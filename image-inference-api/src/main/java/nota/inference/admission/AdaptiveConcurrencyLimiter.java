@@ -0,0 +1,85 @@
+package nota.inference.admission;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.routing.RuntimeLoad;
+import nota.inference.routing.RuntimeLoadMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private final TaskScheduler taskScheduler;
+    private final RuntimeLoadMonitor runtimeLoadMonitor;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLag;
+    private final double backoffRatio;
+    private final Duration adjustInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private ScheduledFuture<?> futureTask;
+
+    public AdaptiveConcurrencyLimiter(TaskScheduler taskScheduler,
+                                      RuntimeLoadMonitor runtimeLoadMonitor,
+                                      @Value("${inference.admission.concurrency.min-limit}") int minLimit,
+                                      @Value("${inference.admission.concurrency.max-limit}") int maxLimit,
+                                      @Value("${inference.admission.concurrency.target-lag}") long targetLag,
+                                      @Value("${inference.admission.concurrency.backoff-ratio}") double backoffRatio,
+                                      @Value("${inference.routing.refresh-interval}") Duration adjustInterval) {
+        this.taskScheduler = taskScheduler;
+        this.runtimeLoadMonitor = runtimeLoadMonitor;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLag = targetLag;
+        this.backoffRatio = backoffRatio;
+        this.adjustInterval = adjustInterval;
+        this.limit = maxLimit;
+    }
+
+    @PostConstruct
+    private void start() {
+        futureTask = taskScheduler.scheduleWithFixedDelay(this::adjust, adjustInterval);
+    }
+
+    @PreDestroy
+    private void stop() {
+        futureTask.cancel(false);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    void adjust() {
+        long lag = runtimeLoadMonitor.getLoads().values().stream().mapToLong(RuntimeLoad::lag).sum();
+        int previous = limit;
+        limit = lag > targetLag
+                ? Math.max(minLimit, (int) (previous * backoffRatio))
+                : Math.min(maxLimit, previous + 1);
+        if (limit < previous)
+            log.info("Lowered upload concurrency limit to {} at consumer lag {}", limit, lag);
+    }
+}
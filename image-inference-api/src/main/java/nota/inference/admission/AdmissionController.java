@@ -0,0 +1,46 @@
+package nota.inference.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.exception.Error;
+import nota.inference.exception.RateLimitException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+public class AdmissionController {
+    private final UserRateLimiter userRateLimiter;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final Duration busyRetryAfter;
+
+    public AdmissionController(UserRateLimiter userRateLimiter,
+                               AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                               @Value("${inference.admission.concurrency.retry-after}") Duration busyRetryAfter) {
+        this.userRateLimiter = userRateLimiter;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+        this.busyRetryAfter = busyRetryAfter;
+    }
+
+    public void admit(String userId, int images) {
+        if (!adaptiveConcurrencyLimiter.tryAcquire())
+            throw new RateLimitException(Error.TOO_MANY_CONCURRENT_REQUESTS, busyRetryAfter);
+
+        long waitNanos = userRateLimiter.tryAcquire(userId, images);
+        if (waitNanos > 0) {
+            adaptiveConcurrencyLimiter.release();
+            log.debug("Rate limited user {} for {} images", userId, images);
+            throw new RateLimitException(Error.TOO_MANY_REQUESTS, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    public void charge(String userId, int images) {
+        if (images > 0)
+            userRateLimiter.charge(userId, images);
+    }
+
+    public void release() {
+        adaptiveConcurrencyLimiter.release();
+    }
+}
@@ -0,0 +1,33 @@
+package nota.inference.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+    private static final String DEFAULT_USER_ID = "mock";
+    private final AdmissionController admissionController;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.POST.matches(request.getMethod()))
+            return true;
+        admissionController.admit(Optional.ofNullable(request.getHeader("userId")).orElse(DEFAULT_USER_ID), 1);
+        request.setAttribute(ADMITTED, true);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) != null)
+            admissionController.release();
+    }
+}
@@ -0,0 +1,34 @@
+package nota.inference.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    public long tryAcquire(int tokens, long nowNanos) {
+        long cost = tokens * nanosPerToken;
+        long admitted = Math.min(cost, burstNanos);
+        while (true) {
+            long current = fullAt.get();
+            long start = current - nowNanos > 0 ? current : nowNanos;
+            long excess = start + admitted - nowNanos - burstNanos;
+            if (excess > 0)
+                return excess;
+            if (fullAt.compareAndSet(current, start + cost))
+                return 0;
+        }
+    }
+
+    public void charge(int tokens, long nowNanos) {
+        long cost = tokens * nanosPerToken;
+        fullAt.accumulateAndGet(nowNanos, (current, now) -> (current - now > 0 ? current : now) + cost);
+    }
+}
@@ -0,0 +1,43 @@
+package nota.inference.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+@Component
+public class UserRateLimiter {
+    private final Cache<String, TokenBucket> buckets;
+    private final LongSupplier nanoClock;
+    private final Function<String, TokenBucket> newBucket;
+
+    @Autowired
+    public UserRateLimiter(@Value("${inference.admission.user.rate}") double rate,
+                           @Value("${inference.admission.user.burst}") int burst,
+                           @Value("${inference.admission.user.maximum-size}") long maximumSize,
+                           @Value("${inference.admission.user.idle-expiry}") Duration idleExpiry) {
+        this(rate, burst, maximumSize, idleExpiry, System::nanoTime);
+    }
+
+    UserRateLimiter(double rate, int burst, long maximumSize, Duration idleExpiry, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleExpiry)
+                .build();
+        this.nanoClock = nanoClock;
+        this.newBucket = _ -> new TokenBucket(rate, burst, nanoClock.getAsLong());
+    }
+
+    public long tryAcquire(String userId, int tokens) {
+        return buckets.get(userId, newBucket).tryAcquire(tokens, nanoClock.getAsLong());
+    }
+
+    public void charge(String userId, int tokens) {
+        buckets.get(userId, newBucket).charge(tokens, nanoClock.getAsLong());
+    }
+}
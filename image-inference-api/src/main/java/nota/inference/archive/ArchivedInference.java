@@ -0,0 +1,46 @@
+package nota.inference.archive;
+
+import lombok.Builder;
+import nota.inference.domain.model.Inference;
+import nota.inference.dto.response.InferenceHistoryItem;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record ArchivedInference(
+        Long id,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        String userId,
+        String runtime,
+        String status,
+        String fileName,
+        String result,
+        String batchId
+) {
+    public static ArchivedInference from(Inference inference) {
+        return ArchivedInference.builder()
+                .id(inference.getId())
+                .createdAt(inference.getCreatedAt())
+                .updatedAt(inference.getUpdatedAt())
+                .userId(inference.getUserId())
+                .runtime(inference.getRuntime().name())
+                .status(inference.getStatus().name())
+                .fileName(inference.getFileName())
+                .result(inference.getResult())
+                .batchId(inference.getBatchId())
+                .build();
+    }
+
+    public InferenceHistoryItem toHistoryItem() {
+        return InferenceHistoryItem.builder()
+                .id(id)
+                .fileName(fileName)
+                .runtime(runtime)
+                .status(status)
+                .result(result)
+                .userId(userId)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package nota.inference.archive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// a segment is a header followed by one deflated block per column:
+//   int magic, int version, int rowCount, int columnCount, columnCount x (utf name, int compressedLength), blocks...
+// numbers are zigzag varint deltas against the previous row, strings are a varint of length + 1 (0 for null) and utf-8 bytes
+final class InferenceArchiveFormat {
+    static final int MAGIC = 0x4E494152;
+    static final int VERSION = 1;
+    static final List<String> COLUMNS = List.of(
+            "id", "createdAt", "updatedAt", "userId", "runtime", "status", "fileName", "result", "batchId");
+
+    private InferenceArchiveFormat() {
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,131 @@
+package nota.inference.archive;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.InflaterInputStream;
+
+import static nota.inference.archive.InferenceArchiveFormat.*;
+
+public final class InferenceArchiveReader implements Iterator<ArchivedInference>, Closeable {
+    private final List<InputStream> columns;
+    private final long[] previous = new long[3];
+    private int remaining;
+
+    private InferenceArchiveReader(List<InputStream> columns, int rowCount) {
+        this.columns = columns;
+        this.remaining = rowCount;
+    }
+
+    public static InferenceArchiveReader open(Path path) throws IOException {
+        int rowCount;
+        long offset;
+        List<Integer> lengths = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Not an inference archive segment: " + path);
+            rowCount = in.readInt();
+            int columnCount = in.readInt();
+            offset = 16;
+            for (int i = 0; i < columnCount; i++) {
+                String name = in.readUTF();
+                if (!name.equals(COLUMNS.get(i)))
+                    throw new IOException("Unexpected column " + name + " in " + path);
+                lengths.add(in.readInt());
+                offset += 2 + name.getBytes(StandardCharsets.UTF_8).length + 4;
+            }
+        }
+
+        List<InputStream> columns = new ArrayList<>(lengths.size());
+        try {
+            for (int length : lengths) {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ).position(offset);
+                columns.add(new BufferedInputStream(new InflaterInputStream(Channels.newInputStream(channel))));
+                offset += length;
+            }
+        } catch (IOException e) {
+            closeAll(columns);
+            throw e;
+        }
+        return new InferenceArchiveReader(columns, rowCount);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public ArchivedInference next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        remaining--;
+        try {
+            return ArchivedInference.builder()
+                    .id(readLong(0))
+                    .createdAt(fromMicros(readLong(1)))
+                    .updatedAt(fromMicros(readLong(2)))
+                    .userId(readString(3))
+                    .runtime(readString(4))
+                    .status(readString(5))
+                    .fileName(readString(6))
+                    .result(readString(7))
+                    .batchId(readString(8))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeAll(columns);
+    }
+
+    private long readLong(int column) throws IOException {
+        long zigzag = readVarLong(columns.get(column));
+        previous[column] += zigzag >>> 1 ^ -(zigzag & 1);
+        return previous[column];
+    }
+
+    private String readString(int column) throws IOException {
+        InputStream in = columns.get(column);
+        int length = (int) readVarLong(in);
+        if (length == 0)
+            return null;
+        return new String(in.readNBytes(length - 1), StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void closeAll(List<InputStream> streams) throws IOException {
+        IOException failure = null;
+        for (InputStream stream : streams) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+}
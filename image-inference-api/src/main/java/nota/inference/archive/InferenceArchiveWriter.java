@@ -0,0 +1,108 @@
+package nota.inference.archive;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static nota.inference.archive.InferenceArchiveFormat.*;
+
+public final class InferenceArchiveWriter {
+    public static final Comparator<ArchivedInference> HISTORY_ORDER = Comparator
+            .comparing(ArchivedInference::createdAt, Comparator.reverseOrder())
+            .thenComparing(ArchivedInference::id, Comparator.reverseOrder());
+
+    private InferenceArchiveWriter() {
+    }
+
+    public static void write(Path target, List<ArchivedInference> rows) throws IOException {
+        List<ArchivedInference> sorted = rows.stream().sorted(HISTORY_ORDER).toList();
+        List<byte[]> blocks = List.of(
+                longColumn(sorted, ArchivedInference::id),
+                longColumn(sorted, row -> toMicros(row.createdAt())),
+                longColumn(sorted, row -> toMicros(row.updatedAt())),
+                stringColumn(sorted, ArchivedInference::userId),
+                stringColumn(sorted, ArchivedInference::runtime),
+                stringColumn(sorted, ArchivedInference::status),
+                stringColumn(sorted, ArchivedInference::fileName),
+                stringColumn(sorted, ArchivedInference::result),
+                stringColumn(sorted, ArchivedInference::batchId));
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sorted.size());
+                out.writeInt(COLUMNS.size());
+                for (int i = 0; i < COLUMNS.size(); i++) {
+                    out.writeUTF(COLUMNS.get(i));
+                    out.writeInt(blocks.get(i).length);
+                }
+                for (byte[] block : blocks)
+                    out.write(block);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] longColumn(List<ArchivedInference> rows, ToLongFunction<ArchivedInference> value) throws IOException {
+        return compress(out -> {
+            long previous = 0;
+            for (ArchivedInference row : rows) {
+                long current = value.applyAsLong(row);
+                long delta = current - previous;
+                writeVarLong(out, delta << 1 ^ delta >> 63);
+                previous = current;
+            }
+        });
+    }
+
+    private static byte[] stringColumn(List<ArchivedInference> rows, Function<ArchivedInference, String> value) throws IOException {
+        return compress(out -> {
+            for (ArchivedInference row : rows) {
+                String current = value.apply(row);
+                if (current == null) {
+                    writeVarLong(out, 0);
+                    continue;
+                }
+                byte[] bytes = current.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length + 1);
+                out.write(bytes);
+            }
+        });
+    }
+
+    private static byte[] compress(ColumnEncoder encoder) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            encoder.encode(out);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private interface ColumnEncoder {
+        void encode(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,35 @@
+package nota.inference.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import nota.inference.domain.model.Runtime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class InFlightInferenceRegistry {
+    private final Cache<InferenceCacheKey, Long> leaders;
+
+    public InFlightInferenceRegistry(@Value("${inference.coalescing.maximum-size}") long maximumSize,
+                                     @Value("${inference.coalescing.expire-after-write}") Duration expireAfterWrite) {
+        this.leaders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<Long> findLeader(String imageKey, Runtime runtime) {
+        return Optional.ofNullable(leaders.getIfPresent(new InferenceCacheKey(imageKey, runtime)));
+    }
+
+    public void register(String imageKey, Runtime runtime, Long leaderId) {
+        leaders.asMap().putIfAbsent(new InferenceCacheKey(imageKey, runtime), leaderId);
+    }
+
+    public void remove(String imageKey, Runtime runtime, Long leaderId) {
+        leaders.asMap().remove(new InferenceCacheKey(imageKey, runtime), leaderId);
+    }
+}
@@ -0,0 +1,9 @@
+package nota.inference.cache;
+
+import nota.inference.domain.model.Runtime;
+
+record InferenceCacheKey(
+        String imageKey,
+        Runtime runtime
+) {
+}
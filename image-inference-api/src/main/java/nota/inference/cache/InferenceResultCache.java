@@ -0,0 +1,39 @@
+package nota.inference.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import nota.inference.domain.model.Runtime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class InferenceResultCache {
+    private static final String CACHE_NAME = "inference.result";
+    private final Cache<InferenceCacheKey, String> cache;
+
+    public InferenceResultCache(@Value("${inference.result-cache.maximum-size}") long maximumSize,
+                                @Value("${inference.result-cache.expire-after-write}") Duration expireAfterWrite,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<String> get(String imageKey, Runtime runtime) {
+        return Optional.ofNullable(cache.getIfPresent(new InferenceCacheKey(imageKey, runtime)));
+    }
+
+    public void put(String imageKey, Runtime runtime, String result) {
+        if (imageKey == null || result == null)
+            return;
+        cache.put(new InferenceCacheKey(imageKey, runtime), result);
+    }
+}
@@ -0,0 +1,79 @@
+package nota.inference.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class InferenceStatusCache {
+    private static final String CACHE_NAME = "inference.status";
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private final Cache<Long, InferenceStatusSnapshot> cache;
+
+    public InferenceStatusCache(@Value("${inference.status-cache.maximum-weight}") DataSize maximumWeight,
+                                @Value("${inference.status-cache.processing-ttl}") Duration processingTtl,
+                                @Value("${inference.status-cache.finished-ttl}") Duration finishedTtl,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((Long _, InferenceStatusSnapshot snapshot) -> weigh(snapshot))
+                .expireAfter(new StatusExpiry(processingTtl, finishedTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<InferenceStatusSnapshot> get(Long id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    public void put(InferenceStatusSnapshot snapshot) {
+        cache.put(snapshot.id(), snapshot);
+    }
+
+    public void apply(InferenceStatusChangedMessage message) {
+        if (message.isDeleted()) {
+            cache.invalidateAll(message.ids());
+            return;
+        }
+        message.ids().forEach(id -> put(new InferenceStatusSnapshot(id, message.status(), message.result())));
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static int weigh(InferenceStatusSnapshot snapshot) {
+        return ENTRY_OVERHEAD_BYTES + (snapshot.result() == null ? 0 : snapshot.result().length() * 2);
+    }
+
+    private record StatusExpiry(Duration processingTtl, Duration finishedTtl) implements Expiry<Long, InferenceStatusSnapshot> {
+        @Override
+        public long expireAfterCreate(Long id, InferenceStatusSnapshot snapshot, long currentTime) {
+            return (snapshot.isProcessing() ? processingTtl : finishedTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, InferenceStatusSnapshot snapshot, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, snapshot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, InferenceStatusSnapshot snapshot, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
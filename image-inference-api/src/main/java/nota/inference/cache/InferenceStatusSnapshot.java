@@ -0,0 +1,30 @@
+package nota.inference.cache;
+
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+
+public record InferenceStatusSnapshot(
+        Long id,
+        InferenceStatus status,
+        String result
+) {
+    public static InferenceStatusSnapshot from(Inference inference) {
+        return new InferenceStatusSnapshot(inference.getId(), inference.getStatus(), inference.getResult());
+    }
+
+    public static InferenceStatusSnapshot ofDeleted(Long id) {
+        return new InferenceStatusSnapshot(id, null, null);
+    }
+
+    public boolean isProcessing() {
+        return InferenceStatus.PROCESSING.equals(status);
+    }
+
+    public boolean isFail() {
+        return InferenceStatus.FAIL.equals(status);
+    }
+
+    public boolean isDeleted() {
+        return status == null;
+    }
+}
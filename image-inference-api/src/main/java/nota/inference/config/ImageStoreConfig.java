@@ -0,0 +1,46 @@
+package nota.inference.config;
+
+import nota.inference.storage.ImageStore;
+import nota.inference.storage.LocalImageStore;
+import nota.inference.storage.S3ImageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+@Configuration
+public class ImageStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "inference.image-store.type", havingValue = "local", matchIfMissing = true)
+    public ImageStore localImageStore(@Value("${inference.image-store.local.root}") String root) {
+        return new LocalImageStore(Path.of(root));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "inference.image-store.type", havingValue = "s3")
+    public S3Client s3Client(@Value("${inference.image-store.s3.endpoint}") String endpoint,
+                             @Value("${inference.image-store.s3.region}") String region,
+                             @Value("${inference.image-store.s3.access-key}") String accessKey,
+                             @Value("${inference.image-store.s3.secret-key}") String secretKey) {
+        return S3Client.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .forcePathStyle(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "inference.image-store.type", havingValue = "s3")
+    public ImageStore s3ImageStore(S3Client s3Client, @Value("${inference.image-store.s3.bucket}") String bucket) {
+        return new S3ImageStore(s3Client, bucket);
+    }
+}
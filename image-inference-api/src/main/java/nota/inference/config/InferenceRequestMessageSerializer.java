@@ -0,0 +1,32 @@
+package nota.inference.config;
+
+import nota.inference.dto.message.InferenceRequestMessage;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * version(1) | id(8) | runtimeLength(2) runtime | imageKeyLength(2) imageKey
+ */
+public class InferenceRequestMessageSerializer implements Serializer<InferenceRequestMessage> {
+    public static final byte VERSION = 2;
+    private static final int FIXED_HEADER_SIZE = Byte.BYTES + Long.BYTES + Short.BYTES + Short.BYTES;
+
+    @Override
+    public byte[] serialize(String topic, InferenceRequestMessage message) {
+        if (message == null)
+            return null;
+
+        byte[] runtime = message.runtime().name().getBytes(StandardCharsets.UTF_8);
+        byte[] imageKey = message.imageKey().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(FIXED_HEADER_SIZE + runtime.length + imageKey.length)
+                .put(VERSION)
+                .putLong(message.id())
+                .putShort((short) runtime.length)
+                .put(runtime)
+                .putShort((short) imageKey.length)
+                .put(imageKey)
+                .array();
+    }
+}
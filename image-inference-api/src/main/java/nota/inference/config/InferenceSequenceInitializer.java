@@ -0,0 +1,26 @@
+package nota.inference.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.repository.InferenceSequenceRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+@Slf4j
+@Configuration
+@DependsOn("entityManagerFactory")
+public class InferenceSequenceInitializer {
+    private final InferenceSequenceRepository inferenceSequenceRepository;
+
+    public InferenceSequenceInitializer(InferenceSequenceRepository inferenceSequenceRepository) {
+        this.inferenceSequenceRepository = inferenceSequenceRepository;
+    }
+
+    @PostConstruct
+    void seedInferenceSequence() {
+        int updated = inferenceSequenceRepository.advancePastMaxId(Inference.ID_ALLOCATION_SIZE);
+        if (updated == 0)
+            log.warn("inferences_seq has no row to seed, ids may collide with existing inferences");
+    }
+}
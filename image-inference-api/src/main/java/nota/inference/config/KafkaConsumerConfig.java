@@ -1,21 +1,27 @@
 package nota.inference.config;
 
 import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
 import nota.inference.dto.message.InferenceSuccessMessage;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.converter.BatchMessagingMessageConverter;
 import org.springframework.kafka.support.converter.RecordMessageConverter;
 import org.springframework.kafka.support.converter.StringJsonMessageConverter;
 import org.springframework.kafka.support.mapping.DefaultJackson2JavaTypeMapper;
 import org.springframework.kafka.support.mapping.Jackson2JavaTypeMapper;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,14 +31,38 @@ public class KafkaConsumerConfig {
     private String kafkaUri;
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
+    @Value("${spring.kafka.consumer.max-poll-records}")
+    private int maxPollRecords;
+    @Value("${spring.kafka.consumer.fetch-min-size}")
+    private DataSize fetchMinSize;
+    @Value("${spring.kafka.consumer.fetch-max-wait}")
+    private Duration fetchMaxWait;
+    @Value("${inference.kafka.listener.max-partition-fetch-size}")
+    private DataSize maxPartitionFetchSize;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> properties = new HashMap<>();
-        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaUri);
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaUri);
         properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        properties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, (int) fetchMinSize.toBytes());
+        properties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) fetchMaxWait.toMillis());
+        properties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, (int) maxPartitionFetchSize.toBytes());
+        return new DefaultKafkaConsumerFactory<>(properties);
+    }
+
+    @Bean
+    public ConsumerFactory<String, Object> broadcastConsumerFactory() {
+        Map<String, Object> properties = new HashMap<>(consumerFactory().getConfigurationProperties());
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        properties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1);
         return new DefaultKafkaConsumerFactory<>(properties);
     }
 
@@ -40,9 +70,41 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> concurrentKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setBatchMessageConverter(new BatchMessagingMessageConverter(recordMessageConverter()));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (virtualThreads)
+            factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> broadcastKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(broadcastConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setBatchMessageConverter(new BatchMessagingMessageConverter(recordMessageConverter()));
+        if (virtualThreads)
+            factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
         return factory;
     }
 
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (virtualThreads)
+            factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    private SimpleAsyncTaskExecutor listenerTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
     @Bean
     public RecordMessageConverter recordMessageConverter() {
         StringJsonMessageConverter converter = new StringJsonMessageConverter();
@@ -52,6 +114,8 @@ public class KafkaConsumerConfig {
         Map<String, Class<?>> mapping = new HashMap<>();
         mapping.put("inferenceSuccessMessage", InferenceSuccessMessage.class);
         mapping.put("inferenceFailMessage", InferenceFailMessage.class);
+        mapping.put("inferenceStatusChangedMessage", InferenceStatusChangedMessage.class);
+        mapping.put("inferenceRetryMessage", InferenceRetryMessage.class);
         typeMapper.setIdClassMapping(mapping);
         converter.setTypeMapper(typeMapper);
         return converter;
@@ -1,16 +1,27 @@
 package nota.inference.config;
 
+import nota.inference.dto.message.InferenceDeadLetterMessage;
+import nota.inference.dto.message.InferenceRequestMessage;
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.mapping.DefaultJackson2JavaTypeMapper;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -18,19 +29,70 @@ public class KafkaProducerConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String kafkaUri;
+    @Value("${spring.kafka.producer.batch-size}")
+    private DataSize batchSize;
+    @Value("${spring.kafka.producer.compression-type}")
+    private String compressionType;
+    @Value("${inference.kafka.producer.linger}")
+    private Duration linger;
+    @Value("${inference.kafka.producer.max-block}")
+    private Duration maxBlock;
+    @Value("${inference.kafka.producer.bulk.batch-size}")
+    private DataSize bulkBatchSize;
+    @Value("${inference.kafka.producer.bulk.linger}")
+    private Duration bulkLinger;
+    @Value("${inference.kafka.producer.bulk.compression-type}")
+    private String bulkCompressionType;
 
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaUri);
-        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(properties);
+        return new DefaultKafkaProducerFactory<>(producerProperties(batchSize, linger, compressionType),
+                new StringSerializer(), valueSerializer());
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    @Bean
+    public ProducerFactory<String, Object> bulkProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProperties(bulkBatchSize, bulkLinger, bulkCompressionType),
+                new StringSerializer(), valueSerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> bulkKafkaTemplate() {
+        return new KafkaTemplate<>(bulkProducerFactory());
+    }
+
+    private Map<String, Object> producerProperties(DataSize batchSize, Duration linger, String compressionType) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaUri);
+        properties.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) batchSize.toBytes());
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis());
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        properties.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+        return properties;
+    }
+
+    private DelegatingByTypeSerializer valueSerializer() {
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(InferenceRequestMessage.class, new InferenceRequestMessageSerializer());
+        delegates.put(Object.class, jsonSerializer());
+        return new DelegatingByTypeSerializer(delegates, true);
+    }
+
+    private JsonSerializer<Object> jsonSerializer() {
+        JsonSerializer<Object> serializer = new JsonSerializer<>();
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(Map.of(
+                "inferenceStatusChangedMessage", InferenceStatusChangedMessage.class,
+                "inferenceRetryMessage", InferenceRetryMessage.class,
+                "inferenceDeadLetterMessage", InferenceDeadLetterMessage.class));
+        serializer.setTypeMapper(typeMapper);
+        return serializer;
+    }
+
 }
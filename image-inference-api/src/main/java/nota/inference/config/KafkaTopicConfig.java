@@ -0,0 +1,86 @@
+package nota.inference.config;
+
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class KafkaTopicConfig {
+    public static final String INFERENCE_STATUS_CHANGED_TOPIC = "inference_status_changed";
+    public static final String INFERENCE_DEAD_LETTER_TOPIC = "inference_dlq";
+    private static final String INFERENCE_RETRY_TOPIC_PREFIX = "inference_retry_";
+    @Value("${inference.kafka.topics.partitions}")
+    private int partitions;
+    @Value("${inference.kafka.topics.replicas}")
+    private int replicas;
+    @Value("${inference.retry.delays}")
+    private List<Duration> retryDelays;
+
+    @Bean
+    public NewTopic inferenceSuccessTopic() {
+        return TopicBuilder.name("inference_success")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public NewTopic inferenceFailTopic() {
+        return TopicBuilder.name("inference_fail")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public NewTopic inferenceStatusChangedTopic() {
+        return TopicBuilder.name(INFERENCE_STATUS_CHANGED_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public NewTopic inferenceDeadLetterTopic() {
+        return TopicBuilder.name(INFERENCE_DEAD_LETTER_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics inferenceRetryTopics() {
+        return new KafkaAdmin.NewTopics(retryDelays.stream()
+                .map(delay -> TopicBuilder.name(retryTopic(delay))
+                        .partitions(partitions)
+                        .replicas(replicas)
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+
+    public static String inferenceRequestTopic(Runtime runtime) {
+        return runtime.name().toLowerCase() + "_inference_request";
+    }
+
+    public static String inferenceRequestTopic(Runtime runtime, Priority priority) {
+        if (Priority.LOW.equals(priority))
+            return inferenceRequestTopic(runtime) + "_low";
+        return inferenceRequestTopic(runtime);
+    }
+
+    public static String retryTopic(Duration delay) {
+        if (delay.toSeconds() % 3600 == 0 && delay.toHours() > 0)
+            return INFERENCE_RETRY_TOPIC_PREFIX + delay.toHours() + "h";
+        if (delay.toSeconds() % 60 == 0 && delay.toMinutes() > 0)
+            return INFERENCE_RETRY_TOPIC_PREFIX + delay.toMinutes() + "m";
+        return INFERENCE_RETRY_TOPIC_PREFIX + delay.toSeconds() + "s";
+    }
+}
@@ -2,31 +2,46 @@ package nota.inference.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nota.inference.admission.AdmissionController;
+import nota.inference.domain.model.Priority;
 import nota.inference.domain.model.Runtime;
+import nota.inference.dto.response.ExecuteBatchInferenceResponse;
 import nota.inference.dto.response.ExecuteInferenceResponse;
-import nota.inference.dto.response.InferenceHistoryItem;
+import nota.inference.dto.response.InferenceHistoryResponse;
 import nota.inference.dto.response.InferenceResultResponse;
+import nota.inference.exception.Error;
 import nota.inference.exception.ExceptionResponse;
+import nota.inference.exception.InferenceException;
+import nota.inference.routing.RuntimeRouter;
 import nota.inference.service.InferenceService;
 import nota.inference.util.validator.DateTime;
+import nota.inference.util.validator.DurationValue;
 import nota.inference.util.validator.EnumValue;
-import org.springframework.data.domain.Slice;
+import org.hibernate.validator.constraints.URL;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @Validated
@@ -35,20 +50,50 @@ import java.util.Optional;
 @Tag(name = "Inference", description = "APIs for inference and retrieving history")
 @RequestMapping("/inferences")
 public class InferenceController {
+    private static final Duration SSE_TIMEOUT_GRACE = Duration.ofSeconds(5);
     private final InferenceService inferenceService;
+    private final AdmissionController admissionController;
+
+    @Value("${inference.result-wait.sse-timeout}")
+    private Duration sseTimeout;
 
     @Operation(summary = "execute inference")
     @ApiResponses({
             @ApiResponse(responseCode = "202", content = {@Content(schema = @Schema(implementation = ExecuteInferenceResponse.class))}),
-            @ApiResponse(responseCode = "400", description = "request field error", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))})
+            @ApiResponse(responseCode = "400", description = "request field error", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))}),
+            @ApiResponse(responseCode = "429", description = "rate limited, retry after the Retry-After seconds", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))})
     })
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ExecuteInferenceResponse> executeInference(
-            @Parameter(name = "runtime", description = "Parameter must be 'onnx' or 'tflite'", example = "onnx")
-            @RequestParam @EnumValue(enumClass = Runtime.class, message = "허용되지 않는 runtime 입니다.") String runtime,
+            @Parameter(name = "runtime", description = "Parameter must be 'onnx', 'tflite' or 'auto' to pick the less loaded runtime", example = "onnx")
+            @RequestParam @EnumValue(enumClass = Runtime.class, additionalValues = RuntimeRouter.AUTO, message = "허용되지 않는 runtime 입니다.") String runtime,
             @RequestPart(value = "image") MultipartFile file,
+            @Parameter(name = "callbackUrl", description = "Results are POSTed to this url once the inference finishes", example = "https://example.com/inference-callback")
+            @RequestParam(required = false) @URL(regexp = "^https?://.*", message = "올바른 callbackUrl 형식이 아닙니다.") @Size(max = 2048, message = "callbackUrl 은 2048자 이하로 입력해주세요.") String callbackUrl,
+            @Parameter(name = "priority", description = "Parameter must be 'high' or 'low', send back-fills as 'low' so they queue behind interactive requests", example = "high")
+            @RequestParam(defaultValue = "high") @EnumValue(enumClass = Priority.class, message = "허용되지 않는 priority 입니다.") String priority,
+            @RequestHeader(defaultValue = "mock") String userId) throws IOException {
+        return ResponseEntity.accepted().body(inferenceService.executeInference(file, runtime, userId, callbackUrl, priority));
+    }
+
+    @Operation(summary = "execute inferences for multiple images")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", content = {@Content(schema = @Schema(implementation = ExecuteBatchInferenceResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "request field error", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))}),
+            @ApiResponse(responseCode = "429", description = "rate limited, retry after the Retry-After seconds", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))})
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ExecuteBatchInferenceResponse> executeBatchInference(
+            @Parameter(name = "runtime", description = "Parameter must be 'onnx', 'tflite' or 'auto' to pick the less loaded runtime", example = "onnx")
+            @RequestParam @EnumValue(enumClass = Runtime.class, additionalValues = RuntimeRouter.AUTO, message = "허용되지 않는 runtime 입니다.") String runtime,
+            @RequestPart(value = "images") @Size(min = 1, max = 500, message = "이미지는 한 번에 1개 이상 500개 이하로 요청해주세요.") List<MultipartFile> files,
+            @Parameter(name = "callbackUrl", description = "Results are POSTed to this url once the inference finishes", example = "https://example.com/inference-callback")
+            @RequestParam(required = false) @URL(regexp = "^https?://.*", message = "올바른 callbackUrl 형식이 아닙니다.") @Size(max = 2048, message = "callbackUrl 은 2048자 이하로 입력해주세요.") String callbackUrl,
+            @Parameter(name = "priority", description = "Parameter must be 'high' or 'low', send back-fills as 'low' so they queue behind interactive requests", example = "high")
+            @RequestParam(defaultValue = "high") @EnumValue(enumClass = Priority.class, message = "허용되지 않는 priority 입니다.") String priority,
             @RequestHeader(defaultValue = "mock") String userId) throws IOException {
-        return ResponseEntity.accepted().body(inferenceService.executeInference(file, runtime, userId));
+        admissionController.charge(userId, files.size() - 1);
+        return ResponseEntity.accepted().body(inferenceService.executeBatchInference(files, runtime, userId, callbackUrl, priority));
     }
 
     @Operation(summary = "retrieve inference result by id")
@@ -61,12 +106,66 @@ public class InferenceController {
     })
     @GetMapping("/{inferenceId}")
     public ResponseEntity<InferenceResultResponse> getInferenceResultById(@PathVariable Long inferenceId) {
-        InferenceResultResponse response = inferenceService.getInferenceResultById(inferenceId);
+        return toResultResponseEntity(inferenceService.getInferenceResultById(inferenceId));
+    }
+
+    @Operation(summary = "wait for inference result by id", description = "Holds the request until the inference finishes or the wait elapses")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "inference is complete", content = {@Content(schema = @Schema(implementation = InferenceResultResponse.class))}),
+            @ApiResponse(responseCode = "202", description = "inference is still processing after the wait", content = {@Content(schema = @Schema(implementation = InferenceResultResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "request field error", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "invalid inferenceId", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))}),
+            @ApiResponse(responseCode = "502", description = "error occurred while executing inference", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))})
+    })
+    @GetMapping(value = "/{inferenceId}", params = "wait")
+    public CompletableFuture<ResponseEntity<InferenceResultResponse>> waitForInferenceResultById(
+            @PathVariable Long inferenceId,
+            @Parameter(name = "wait", description = "Parameter must be a duration up to 60s", example = "30s")
+            @RequestParam @DurationValue(max = "60s", message = "wait 는 60초 이하의 시간으로 입력해주세요. (ex. 30s)") String wait) {
+        return inferenceService.waitForInferenceResult(inferenceId, DurationStyle.detectAndParse(wait))
+                .thenApply(this::toResultResponseEntity);
+    }
+
+    @Operation(summary = "stream inference result by id", description = "Sends a 'result' event once the inference finishes, or a 'processing' event when the stream times out")
+    @GetMapping(value = "/{inferenceId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInferenceResultById(@PathVariable Long inferenceId) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.plus(SSE_TIMEOUT_GRACE).toMillis());
+        try {
+            CompletableFuture<InferenceResultResponse> result = inferenceService.waitForInferenceResult(inferenceId, sseTimeout);
+            emitter.onCompletion(() -> result.cancel(false));
+            result.whenComplete((response, e) -> sendResultEvent(emitter, response, e));
+        } catch (InferenceException e) {
+            sendResultEvent(emitter, null, e);
+        }
+        return emitter;
+    }
+
+    private ResponseEntity<InferenceResultResponse> toResultResponseEntity(InferenceResultResponse response) {
         if (response.isProcessing())
             return ResponseEntity.accepted().body(response);
         return ResponseEntity.ok(response);
     }
 
+    private void sendResultEvent(SseEmitter emitter, InferenceResultResponse response, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof CancellationException)
+            return;
+        try {
+            if (cause instanceof InferenceException inferenceException) {
+                Error error = inferenceException.getError();
+                emitter.send(SseEmitter.event().name("error").data(new ExceptionResponse<>(error.name(), error.message)));
+            } else if (cause != null) {
+                emitter.completeWithError(cause);
+                return;
+            } else {
+                emitter.send(SseEmitter.event().name(response.isProcessing() ? "processing" : "result").data(response));
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Inference result stream for client was already closed: {}", ex.getMessage());
+        }
+    }
+
 
     @Operation(summary = "delete inference history")
     @ApiResponses({
@@ -84,19 +183,20 @@ public class InferenceController {
 
     @Operation(summary = "retrieve inference histories")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", content = {@Content(array = @ArraySchema(schema = @Schema(implementation = InferenceHistoryItem.class)))}),
+            @ApiResponse(responseCode = "200", content = {@Content(schema = @Schema(implementation = InferenceHistoryResponse.class))}),
             @ApiResponse(responseCode = "400", description = "request field error", content = {@Content(schema = @Schema(implementation = ExceptionResponse.class))})
     })
     @GetMapping
-    public ResponseEntity<Slice<InferenceHistoryItem>> getInferenceHistory(
-            @RequestParam(defaultValue = "0") Integer page,
+    public ResponseEntity<InferenceHistoryResponse> getInferenceHistory(
+            @Parameter(name = "cursor", description = "nextCursor of the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") Integer size,
             @Parameter(name = "runtime", description = "Parameter must be 'onnx' or 'tflite'", example = "onnx")
             @RequestParam(required = false) @EnumValue(enumClass = Runtime.class, message = "허용되지 않는 runtime 입니다.", nullable = true) String runtime,
             @RequestParam(required = false) String userId,
             @Parameter(name = "createdAt", description = "Parameter must be 'yyyy-MM-ddTHH:00:00'", example = "2024-10-03T23:00:00")
             @RequestParam(required = false) @DateTime(nullable = true, message = "yyyy-MM-ddTHH:00:00 형식으로 입력해주세요.") String createdAt) {
-        Slice<InferenceHistoryItem> response = inferenceService.getInferenceHistory(page, size,
+        InferenceHistoryResponse response = inferenceService.getInferenceHistory(Optional.ofNullable(cursor), size,
                 Optional.ofNullable(userId),
                 Optional.ofNullable(createdAt),
                 Optional.ofNullable(runtime));
@@ -9,14 +9,20 @@ import lombok.*;
 @Builder
 @Entity
 @Table(name = "inferences", indexes = {
-        @Index(name = "idx_inference_createdAt", columnList = "createdAt"),
-        @Index(name = "idx_inference_userId", columnList = "userId"),
-        @Index(name = "idx_inference_runtime", columnList = "runtime"),
-        @Index(name = "idx_inference_id_userId_runtime", columnList = "id, userId, runtime")
+        @Index(name = "idx_inference_createdAt_id", columnList = "createdAt DESC, id DESC"),
+        @Index(name = "idx_inference_userId_createdAt_id", columnList = "userId, createdAt DESC, id DESC"),
+        @Index(name = "idx_inference_runtime_createdAt_id", columnList = "runtime, createdAt DESC, id DESC"),
+        @Index(name = "idx_inference_userId_runtime_createdAt_id", columnList = "userId, runtime, createdAt DESC, id DESC"),
+        @Index(name = "idx_inference_leaderId", columnList = "leaderId"),
+        @Index(name = "idx_inference_imageKey", columnList = "imageKey"),
+        @Index(name = "idx_inference_status_runtime_updatedAt", columnList = "status, runtime, updatedAt")
 })
 public class Inference extends BaseTimeEntity {
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inferences_seq")
+    @SequenceGenerator(name = "inferences_seq", sequenceName = "inferences_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -35,15 +41,82 @@ public class Inference extends BaseTimeEntity {
     @Column(nullable = false)
     private String userId;
 
-    public static Inference of(Runtime runtime, String fileName, String userId) {
+    @Column(length = 64)
+    private String imageKey;
+
+    private Long leaderId;
+
+    @Column(length = 36)
+    private String batchId;
+
+    @Column(length = 2048)
+    private String callbackUrl;
+
+    private int retryCount;
+
+    private int sweepCount;
+
+    @Column(length = 8)
+    @Enumerated(value = EnumType.STRING)
+    private Priority priority;
+
+    public static Inference of(Runtime runtime, String fileName, String userId, String imageKey) {
+        return Inference.builder()
+                .runtime(runtime)
+                .fileName(fileName)
+                .userId(userId)
+                .imageKey(imageKey)
+                .status(InferenceStatus.PROCESSING)
+                .build();
+    }
+
+    public static Inference ofCompleted(Runtime runtime, String fileName, String userId, String imageKey, String result) {
+        return Inference.builder()
+                .runtime(runtime)
+                .fileName(fileName)
+                .userId(userId)
+                .imageKey(imageKey)
+                .status(InferenceStatus.COMPLETE)
+                .result(result)
+                .build();
+    }
+
+    public static Inference ofFollower(Runtime runtime, String fileName, String userId, String imageKey, Long leaderId) {
         return Inference.builder()
                 .runtime(runtime)
                 .fileName(fileName)
                 .userId(userId)
+                .imageKey(imageKey)
+                .leaderId(leaderId)
                 .status(InferenceStatus.PROCESSING)
                 .build();
     }
 
+    public void assignBatch(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public void assignCallback(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
+    public void assignPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public void followLeader(Long leaderId) {
+        this.leaderId = leaderId;
+    }
+
+    public void promoteToLeader() {
+        leaderId = null;
+    }
+
+    public void copyOutcome(Inference leader) {
+        status = leader.status;
+        result = leader.result;
+    }
+
     public void complete(String result) {
         status = InferenceStatus.COMPLETE;
         this.result = result;
@@ -60,4 +133,8 @@ public class Inference extends BaseTimeEntity {
     public boolean isFail() {
         return InferenceStatus.FAIL.equals(status);
     }
+
+    public boolean isLowPriority() {
+        return Priority.LOW.equals(priority);
+    }
 }
@@ -0,0 +1,38 @@
+package nota.inference.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inference_archive_segments", indexes = {
+        @Index(name = "idx_inference_archive_segment_maxCreatedAt", columnList = "maxCreatedAt")
+})
+public class InferenceArchiveSegment extends BaseTimeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inference_archive_segments_seq")
+    @SequenceGenerator(name = "inference_archive_segments_seq", sequenceName = "inference_archive_segments_seq")
+    private Long id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private int rowCount;
+
+    @Column(nullable = false)
+    private Long minId;
+
+    @Column(nullable = false)
+    private Long maxId;
+
+    @Column(nullable = false)
+    private LocalDateTime minCreatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime maxCreatedAt;
+}
@@ -0,0 +1,56 @@
+package nota.inference.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "inference_outbox", indexes = {
+        @Index(name = "idx_inference_outbox_priority_id", columnList = "priority, id")
+})
+public class InferenceOutbox extends BaseTimeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inference_outbox_seq")
+    @SequenceGenerator(name = "inference_outbox_seq", sequenceName = "inference_outbox_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long inferenceId;
+
+    @Column(nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private Runtime runtime;
+
+    @Column(nullable = false, length = 64)
+    private String imageKey;
+
+    @Column(length = 8)
+    @Enumerated(value = EnumType.STRING)
+    private Priority priority;
+
+    private int attempts;
+
+    private LocalDateTime claimedUntil;
+
+    public static InferenceOutbox from(Inference inference) {
+        return InferenceOutbox.builder()
+                .inferenceId(inference.getId())
+                .runtime(inference.getRuntime())
+                .imageKey(inference.getImageKey())
+                .priority(inference.getPriority())
+                .build();
+    }
+
+    public void claim(LocalDateTime claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    public void recordFailedAttempt() {
+        this.attempts++;
+    }
+}
@@ -0,0 +1,35 @@
+package nota.inference.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "job_schedules")
+public class JobSchedule extends BaseTimeEntity {
+    public static final String FIXED_DELAY = "-";
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String cronExpression;
+
+    @Column(length = 64)
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    public static JobSchedule of(String name, String cronExpression) {
+        return JobSchedule.builder()
+                .name(name)
+                .cronExpression(cronExpression)
+                .build();
+    }
+}
@@ -0,0 +1,5 @@
+package nota.inference.domain.model;
+
+public enum Priority {
+    HIGH, LOW;
+}
@@ -0,0 +1,22 @@
+package nota.inference.domain.repository;
+
+import nota.inference.domain.model.InferenceArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InferenceArchiveSegmentRepository extends JpaRepository<InferenceArchiveSegment, Long> {
+
+    @Query("select s from InferenceArchiveSegment s " +
+            "where (:from is null or s.maxCreatedAt >= :from) and (:to is null or s.minCreatedAt <= :to) " +
+            "order by s.maxCreatedAt desc")
+    List<InferenceArchiveSegment> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select s from InferenceArchiveSegment s where s.maxCreatedAt < :cutoff order by s.maxCreatedAt")
+    List<InferenceArchiveSegment> findExpired(@Param("cutoff") LocalDateTime cutoff);
+}
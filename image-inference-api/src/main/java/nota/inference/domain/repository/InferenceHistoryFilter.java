@@ -0,0 +1,17 @@
+package nota.inference.domain.repository;
+
+import lombok.Builder;
+import nota.inference.domain.model.Runtime;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record InferenceHistoryFilter(
+        String userId,
+        Runtime runtime,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        LocalDateTime cursorCreatedAt,
+        Long cursorId
+) {
+}
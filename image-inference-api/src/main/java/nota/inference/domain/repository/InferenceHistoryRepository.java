@@ -0,0 +1,10 @@
+package nota.inference.domain.repository;
+
+import nota.inference.dto.response.InferenceHistoryItem;
+
+import java.util.List;
+
+public interface InferenceHistoryRepository {
+
+    List<InferenceHistoryItem> findHistory(InferenceHistoryFilter filter, int limit);
+}
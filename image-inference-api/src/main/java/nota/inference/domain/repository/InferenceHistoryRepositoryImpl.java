@@ -0,0 +1,57 @@
+package nota.inference.domain.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import nota.inference.dto.response.InferenceHistoryItem;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InferenceHistoryRepositoryImpl implements InferenceHistoryRepository {
+    private static final String SELECT_HISTORY = "select new nota.inference.dto.response.InferenceHistoryItem(" +
+            "i.id, i.fileName, i.runtime, i.status, i.result, i.userId, i.createdAt) from Inference i";
+    private static final String ORDER_BY_HISTORY = " order by i.createdAt desc, i.id desc";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<InferenceHistoryItem> findHistory(InferenceHistoryFilter filter, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.userId() != null) {
+            conditions.add("i.userId = :userId");
+            parameters.put("userId", filter.userId());
+        }
+        if (filter.runtime() != null) {
+            conditions.add("i.runtime = :runtime");
+            parameters.put("runtime", filter.runtime());
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("i.createdAt >= :createdFrom and i.createdAt < :createdTo");
+            parameters.put("createdFrom", filter.createdFrom());
+            parameters.put("createdTo", filter.createdTo());
+        }
+        if (filter.cursorId() != null) {
+            conditions.add("i.createdAt <= :cursorCreatedAt and (i.createdAt < :cursorCreatedAt or i.id < :cursorId)");
+            parameters.put("cursorCreatedAt", filter.cursorCreatedAt());
+            parameters.put("cursorId", filter.cursorId());
+        }
+
+        String jpql = conditions.isEmpty()
+                ? SELECT_HISTORY + ORDER_BY_HISTORY
+                : SELECT_HISTORY + " where " + String.join(" and ", conditions) + ORDER_BY_HISTORY;
+        TypedQuery<InferenceHistoryItem> query = entityManager.createQuery(jpql, InferenceHistoryItem.class)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
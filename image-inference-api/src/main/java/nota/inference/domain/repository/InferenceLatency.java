@@ -0,0 +1,13 @@
+package nota.inference.domain.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public record InferenceLatency(
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public Duration toDuration() {
+        return Duration.between(createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,39 @@
+package nota.inference.domain.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import jakarta.persistence.QueryHint;
+import nota.inference.domain.model.InferenceOutbox;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InferenceOutboxRepository extends JpaRepository<InferenceOutbox, Long> {
+
+    // -2 is Hibernate's SKIP LOCKED, so concurrent relays claim disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("select o from InferenceOutbox o where o.claimedUntil is null or o.claimedUntil < :now order by o.priority, o.id")
+    List<InferenceOutbox> findRelayBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update InferenceOutbox o set o.claimedUntil = null where o.id in :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update InferenceOutbox o set o.attempts = o.attempts + 1, o.claimedUntil = null where o.id in :ids")
+    int recordFailedAttempts(@Param("ids") Collection<Long> ids);
+}
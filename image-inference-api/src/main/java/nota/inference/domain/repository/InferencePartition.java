@@ -0,0 +1,19 @@
+package nota.inference.domain.repository;
+
+import java.time.LocalDate;
+
+// upperBound is exclusive, and null for the MAXVALUE catch-all partition
+public record InferencePartition(
+        String name,
+        LocalDate upperBound
+) {
+    public static InferencePartition of(String name, String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE"))
+            return new InferencePartition(name, null);
+        return new InferencePartition(name, LocalDate.parse(description.replace("'", "").substring(0, 10)));
+    }
+
+    public boolean isMaxValue() {
+        return upperBound == null;
+    }
+}
@@ -0,0 +1,51 @@
+package nota.inference.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class InferencePartitionRepository {
+    private static final String TABLE = "inferences";
+    private static final String MAX_VALUE_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<InferencePartition> findPartitions() {
+        return jdbcTemplate.query("select partition_name, partition_description from information_schema.partitions " +
+                        "where table_schema = database() and table_name = ? and partition_name is not null " +
+                        "order by partition_ordinal_position",
+                (rs, _) -> InferencePartition.of(rs.getString(1), rs.getString(2)), TABLE);
+    }
+
+    // mysql requires the partitioning column in every unique key, so created_at joins the primary key
+    public void partitionByDay(LocalDate firstDay, List<LocalDate> days) {
+        jdbcTemplate.execute("alter table " + TABLE + " drop primary key, add primary key (id, created_at)");
+        jdbcTemplate.execute("alter table " + TABLE + " partition by range columns(created_at) (" +
+                "partition p_history values less than ('" + firstDay + "'), " +
+                dailyPartitions(days) + ")");
+    }
+
+    public void addDailyPartitions(List<LocalDate> days) {
+        jdbcTemplate.execute("alter table " + TABLE + " reorganize partition " + MAX_VALUE_PARTITION +
+                " into (" + dailyPartitions(days) + ")");
+    }
+
+    public void dropPartitions(List<String> names) {
+        jdbcTemplate.execute("alter table " + TABLE + " drop partition " + String.join(", ", names));
+    }
+
+    private String dailyPartitions(List<LocalDate> days) {
+        return days.stream()
+                .map(day -> "partition " + day.format(PARTITION_NAME) + " values less than ('" + day.plusDays(1) + "')")
+                .collect(Collectors.joining(", ", "", days.isEmpty() ? "" : ", "))
+                + "partition " + MAX_VALUE_PARTITION + " values less than (maxvalue)";
+    }
+}
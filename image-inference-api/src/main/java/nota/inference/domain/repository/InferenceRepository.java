@@ -1,17 +1,110 @@
 package nota.inference.domain.repository;
 
+import jakarta.transaction.Transactional;
 import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Priority;
 import nota.inference.domain.model.Runtime;
-import nota.inference.dto.response.InferenceHistoryItem;
-import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface InferenceRepository extends JpaRepository<Inference, Long>, JpaSpecificationExecutor<Inference> {
+public interface InferenceRepository extends JpaRepository<Inference, Long>, JpaSpecificationExecutor<Inference>, InferenceHistoryRepository {
 
+    @Query("select i from Inference i " +
+            "where (i.id in :ids or i.leaderId in :ids) and i.status = nota.inference.domain.model.InferenceStatus.PROCESSING")
+    List<Inference> findProcessingByIdInOrLeaderIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inference i set i.status = :status, i.result = :result, i.updatedAt = :updatedAt " +
+            "where (i.id in :ids or i.leaderId in :ids) and i.status = nota.inference.domain.model.InferenceStatus.PROCESSING")
+    int updateProcessingByIdInOrLeaderIdIn(@Param("ids") Collection<Long> ids,
+                                           @Param("status") InferenceStatus status,
+                                           @Param("result") String result,
+                                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select max(i.id) from Inference i where i.createdAt < :cutoff")
+    Optional<Long> findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // walks the primary key so every chunk is a bounded range read, processing rows are left to finish
+    @Query("select i.id from Inference i " +
+            "where i.id > :afterId and i.id <= :maxId and i.createdAt < :cutoff " +
+            "and i.status <> nota.inference.domain.model.InferenceStatus.PROCESSING order by i.id")
+    List<Long> findPurgeableIds(@Param("afterId") Long afterId,
+                                @Param("maxId") Long maxId,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                Pageable pageable);
+
+    @Query("select distinct i.imageKey from Inference i where i.id in :ids and i.imageKey is not null")
+    List<String> findImageKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct i.imageKey from Inference i where i.imageKey in :keys")
+    List<String> findReferencedImageKeys(@Param("keys") Collection<String> keys);
+
+    @Query("select distinct i.imageKey from Inference i where i.imageKey in :keys and i.createdAt >= :since")
+    List<String> findImageKeysReferencedSince(@Param("keys") Collection<String> keys, @Param("since") LocalDateTime since);
+
+    @Query("select distinct i.imageKey from Inference i " +
+            "where i.createdAt < :before and i.imageKey > :afterKey order by i.imageKey")
+    List<String> findImageKeysCreatedBefore(@Param("before") LocalDateTime before,
+                                            @Param("afterKey") String afterKey,
+                                            Pageable pageable);
+
+    @Query("select i from Inference i " +
+            "where i.createdAt < :cutoff and i.status <> nota.inference.domain.model.InferenceStatus.PROCESSING order by i.id")
+    List<Inference> findArchivable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // updatedAt is the dispatch time, a leader still in the outbox was never sent and is left to the relay
+    @Query("select i from Inference i " +
+            "where i.status = nota.inference.domain.model.InferenceStatus.PROCESSING and i.runtime = :runtime " +
+            "and coalesce(i.priority, nota.inference.domain.model.Priority.HIGH) = :priority " +
+            "and i.updatedAt < :deadline and i.leaderId is null " +
+            "and not exists (select o.id from InferenceOutbox o where o.inferenceId = i.id) order by i.updatedAt")
+    List<Inference> findExpiredLeaders(@Param("runtime") Runtime runtime,
+                                       @Param("priority") Priority priority,
+                                       @Param("deadline") LocalDateTime deadline,
+                                       Pageable pageable);
+
+    @Query("select new nota.inference.domain.repository.InferenceLatency(i.createdAt, i.updatedAt) from Inference i " +
+            "where i.status = nota.inference.domain.model.InferenceStatus.COMPLETE and i.runtime = :runtime " +
+            "and i.updatedAt >= :since and i.updatedAt > i.createdAt and i.leaderId is null order by i.updatedAt desc")
+    List<InferenceLatency> findRecentLatencies(@Param("runtime") Runtime runtime,
+                                               @Param("since") LocalDateTime since,
+                                               Pageable pageable);
+
+    @Query("select f from Inference f " +
+            "where f.status = nota.inference.domain.model.InferenceStatus.PROCESSING and f.updatedAt < :deadline " +
+            "and f.leaderId is not null and not exists (select l.id from Inference l " +
+            "where l.id = f.leaderId and l.status = nota.inference.domain.model.InferenceStatus.PROCESSING) " +
+            "order by f.updatedAt")
+    List<Inference> findOrphanedFollowers(@Param("deadline") LocalDateTime deadline, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inference i set i.retryCount = i.retryCount + 1, i.updatedAt = :updatedAt " +
+            "where i.id in :ids and i.status = nota.inference.domain.model.InferenceStatus.PROCESSING")
+    int markRetried(@Param("ids") Collection<Long> ids, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inference i set i.sweepCount = i.sweepCount + 1, i.updatedAt = :updatedAt " +
+            "where i.id in :ids and i.status = nota.inference.domain.model.InferenceStatus.PROCESSING")
+    int markSwept(@Param("ids") Collection<Long> ids, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inference i set i.updatedAt = :dispatchedAt " +
+            "where i.id in :ids and i.status = nota.inference.domain.model.InferenceStatus.PROCESSING and i.leaderId is null")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("dispatchedAt") LocalDateTime dispatchedAt);
 }
@@ -0,0 +1,17 @@
+package nota.inference.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class InferenceSequenceRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    // a pooled block hands out ids up to the stored value, so it has to sit a whole block above the highest id
+    public int advancePastMaxId(int allocationSize) {
+        return jdbcTemplate.update("update inferences_seq " +
+                "set next_val = greatest(next_val, (select coalesce(max(id), 0) from inferences) + ?)", allocationSize);
+    }
+}
@@ -0,0 +1,48 @@
+package nota.inference.domain.repository;
+
+import jakarta.transaction.Transactional;
+import nota.inference.domain.model.JobSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobScheduleRepository extends JpaRepository<JobSchedule, String> {
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobSchedule j set j.cronExpression = :cronExpression, j.updatedAt = :updatedAt where j.name = :name")
+    int updateCronExpression(@Param("name") String name,
+                             @Param("cronExpression") String cronExpression,
+                             @Param("updatedAt") LocalDateTime updatedAt);
+
+    // the row lock taken by the update makes this a compare-and-set, only one instance sees 1
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobSchedule j set j.lockedBy = :owner, j.lockedUntil = :lockedUntil " +
+            "where j.name = :name and (j.lockedUntil is null or j.lockedUntil <= :now)")
+    int acquireLock(@Param("name") String name,
+                    @Param("owner") String owner,
+                    @Param("now") LocalDateTime now,
+                    @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobSchedule j set j.lockedUntil = :lockedUntil " +
+            "where j.name = :name and j.lockedBy = :owner and j.lockedUntil > :now")
+    int extendLock(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobSchedule j set j.lockedUntil = :lockedUntil where j.name = :name and j.lockedBy = :owner")
+    int releaseLock(@Param("name") String name,
+                    @Param("owner") String owner,
+                    @Param("lockedUntil") LocalDateTime lockedUntil);
+}
@@ -0,0 +1,15 @@
+package nota.inference.dto.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import nota.inference.domain.model.InferenceStatus;
+
+public record InferenceCallbackMessage(
+        Long id,
+        InferenceStatus status,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String result
+) {
+    public static InferenceCallbackMessage of(Long id, InferenceStatus status, String result) {
+        return new InferenceCallbackMessage(id, status, result);
+    }
+}
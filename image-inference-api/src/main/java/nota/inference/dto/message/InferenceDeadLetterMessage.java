@@ -0,0 +1,16 @@
+package nota.inference.dto.message;
+
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.Runtime;
+
+public record InferenceDeadLetterMessage(
+        Long id,
+        Runtime runtime,
+        String imageKey,
+        int attempts
+) {
+    public static InferenceDeadLetterMessage from(Inference inference) {
+        return new InferenceDeadLetterMessage(inference.getId(), inference.getRuntime(), inference.getImageKey(),
+                inference.getRetryCount() + 1);
+    }
+}
@@ -1,16 +1,13 @@
 package nota.inference.dto.message;
 
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
-import java.util.Base64;
+import nota.inference.domain.model.Runtime;
 
 public record InferenceRequestMessage(
         Long id,
-        String fileContent
+        Runtime runtime,
+        String imageKey
 ) {
-    public static InferenceRequestMessage of(Long id, MultipartFile file) throws IOException {
-        String fileContent = Base64.getEncoder().encodeToString(file.getBytes());
-        return new InferenceRequestMessage(id, fileContent);
+    public static InferenceRequestMessage of(Long id, Runtime runtime, String imageKey) {
+        return new InferenceRequestMessage(id, runtime, imageKey);
     }
 }
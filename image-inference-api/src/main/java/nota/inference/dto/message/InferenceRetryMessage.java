@@ -0,0 +1,20 @@
+package nota.inference.dto.message;
+
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.Runtime;
+
+import java.time.Instant;
+
+public record InferenceRetryMessage(
+        Long id,
+        Runtime runtime,
+        String imageKey,
+        int attempt,
+        int sweeps,
+        Instant dueAt
+) {
+    public static InferenceRetryMessage of(Inference inference, Instant dueAt) {
+        return new InferenceRetryMessage(inference.getId(), inference.getRuntime(), inference.getImageKey(),
+                inference.getRetryCount() + 1, inference.getSweepCount(), dueAt);
+    }
+}
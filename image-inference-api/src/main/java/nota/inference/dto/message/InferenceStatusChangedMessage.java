@@ -0,0 +1,25 @@
+package nota.inference.dto.message;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import nota.inference.domain.model.InferenceStatus;
+
+import java.util.List;
+
+public record InferenceStatusChangedMessage(
+        List<Long> ids,
+        InferenceStatus status,
+        String result
+) {
+    public static InferenceStatusChangedMessage of(List<Long> ids, InferenceStatus status, String result) {
+        return new InferenceStatusChangedMessage(ids, status, result);
+    }
+
+    public static InferenceStatusChangedMessage ofDeleted(List<Long> ids) {
+        return new InferenceStatusChangedMessage(ids, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isDeleted() {
+        return status == null;
+    }
+}
@@ -0,0 +1,15 @@
+package nota.inference.dto.response;
+
+import nota.inference.domain.model.Runtime;
+
+import java.util.List;
+
+public record ExecuteBatchInferenceResponse(
+        String batchId,
+        String runtime,
+        List<Long> ids
+) {
+    public static ExecuteBatchInferenceResponse of(String batchId, Runtime runtime, List<Long> ids) {
+        return new ExecuteBatchInferenceResponse(batchId, runtime.name(), ids);
+    }
+}
@@ -1,9 +1,12 @@
 package nota.inference.dto.response;
 
+import nota.inference.domain.model.Runtime;
+
 public record ExecuteInferenceResponse(
-        Long id
+        Long id,
+        String runtime
 ) {
-    public static ExecuteInferenceResponse of(Long id) {
-        return new ExecuteInferenceResponse(id);
+    public static ExecuteInferenceResponse of(Long id, Runtime runtime) {
+        return new ExecuteInferenceResponse(id, runtime.name());
     }
 }
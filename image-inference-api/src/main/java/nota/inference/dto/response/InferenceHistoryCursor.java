@@ -0,0 +1,36 @@
+package nota.inference.dto.response;
+
+import nota.inference.exception.Error;
+import nota.inference.exception.InferenceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record InferenceHistoryCursor(
+        LocalDateTime createdAt,
+        Long id
+) {
+    private static final String DELIMITER = ",";
+
+    public static InferenceHistoryCursor from(InferenceHistoryItem item) {
+        return new InferenceHistoryCursor(item.createdAt(), item.id());
+    }
+
+    public static InferenceHistoryCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(DELIMITER);
+            if (parts.length != 2)
+                throw new InferenceException(Error.INVALID_CURSOR);
+            return new InferenceHistoryCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InferenceException(Error.INVALID_CURSOR);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + DELIMITER + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
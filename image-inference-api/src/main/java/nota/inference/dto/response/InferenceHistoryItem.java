@@ -2,6 +2,8 @@ package nota.inference.dto.response;
 
 import lombok.Builder;
 import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Runtime;
 
 import java.time.LocalDateTime;
 
@@ -15,6 +17,10 @@ public record InferenceHistoryItem(
         String userId,
         LocalDateTime createdAt
 ) {
+    public InferenceHistoryItem(Long id, String fileName, Runtime runtime, InferenceStatus status, String result, String userId, LocalDateTime createdAt) {
+        this(id, fileName, runtime.name(), status.name(), result, userId, createdAt);
+    }
+
     public static InferenceHistoryItem from(Inference inference) {
         return InferenceHistoryItem.builder()
                 .id(inference.getId())
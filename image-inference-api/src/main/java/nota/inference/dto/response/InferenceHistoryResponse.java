@@ -0,0 +1,20 @@
+package nota.inference.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public record InferenceHistoryResponse(
+        List<InferenceHistoryItem> content,
+        boolean hasNext,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String nextCursor
+) {
+    public static InferenceHistoryResponse of(List<InferenceHistoryItem> items, int size) {
+        if (items.size() <= size)
+            return new InferenceHistoryResponse(items, false, null);
+
+        List<InferenceHistoryItem> content = items.subList(0, size);
+        return new InferenceHistoryResponse(content, true, InferenceHistoryCursor.from(content.getLast()).encode());
+    }
+}
@@ -3,6 +3,7 @@ package nota.inference.dto.response;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
+import nota.inference.cache.InferenceStatusSnapshot;
 import nota.inference.domain.model.Inference;
 
 @Builder
@@ -19,4 +20,12 @@ public record InferenceResultResponse(
                 .isProcessing(inference.isProcessing())
                 .build();
     }
+
+    public static InferenceResultResponse from(InferenceStatusSnapshot snapshot) {
+        return InferenceResultResponse.builder()
+                .id(snapshot.id())
+                .result(snapshot.result())
+                .isProcessing(snapshot.isProcessing())
+                .build();
+    }
 }
@@ -10,7 +10,11 @@ public enum Error {
     INFERENCE_EXECUTION_FAILED(HttpStatus.BAD_GATEWAY, "추론 실행 중 문제가 발생했습니다."),
     REQUEST_ARGUMENT_NOT_VALID(HttpStatus.BAD_REQUEST, "요청 데이터의 형식을 확인해주세요."),
     REQUEST_ARGUMENT_MISSING(HttpStatus.BAD_REQUEST, "요청 데이터가 모두 있는지 확인해주세요."),
-    NOT_INFERENCE_EXECUTOR(HttpStatus.FORBIDDEN, "추론을 실행한 유저가 아닙니다.");
+    NOT_INFERENCE_EXECUTOR(HttpStatus.FORBIDDEN, "추론을 실행한 유저가 아닙니다."),
+    TOO_MANY_PENDING_INFERENCES(HttpStatus.SERVICE_UNAVAILABLE, "처리 대기 중인 추론 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "요청 한도를 초과했습니다. 잠시 후 다시 시도해주세요."),
+    TOO_MANY_CONCURRENT_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "동시에 처리 중인 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "유효하지 않은 cursor 입니다.");
     public final HttpStatus httpStatus;
     public final String message;
 }
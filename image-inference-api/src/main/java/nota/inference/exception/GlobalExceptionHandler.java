@@ -2,6 +2,7 @@ package nota.inference.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -35,6 +36,15 @@ public class GlobalExceptionHandler {
                 .body(new ExceptionResponse<>(REQUEST_ARGUMENT_NOT_VALID.name(), errorMessage));
     }
 
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<ExceptionResponse<String>> handleRateLimitException(RateLimitException e) {
+        log.info(LOG_FORMAT, e.getClass().getSimpleName(), e.getError(), e.getError().message);
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(e.getError().httpStatus)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ExceptionResponse<>(e.getError().name(), e.getError().message));
+    }
+
     @ExceptionHandler(InferenceException.class)
     public ResponseEntity<ExceptionResponse<String>> handleInferenceException(InferenceException e) {
         log.info(LOG_FORMAT, e.getClass().getSimpleName(), e.getError(), e.getError().message);
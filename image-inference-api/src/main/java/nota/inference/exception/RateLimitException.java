@@ -0,0 +1,15 @@
+package nota.inference.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class RateLimitException extends InferenceException {
+    private final Duration retryAfter;
+
+    public RateLimitException(Error error, Duration retryAfter) {
+        super(error);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,69 @@
+package nota.inference.message;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.service.InferenceOutboxService;
+import nota.inference.service.InferenceService;
+import nota.inference.service.OutboxRelayResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+@Slf4j
+@Component
+public class InferenceOutboxRelay {
+    private final TaskScheduler taskScheduler;
+    private final InferenceOutboxService inferenceOutboxService;
+    private final InferenceService inferenceService;
+    private final Duration pollInterval;
+    private final int batchSize;
+
+    private ScheduledFuture<?> futureTask;
+
+    public InferenceOutboxRelay(TaskScheduler taskScheduler,
+                                InferenceOutboxService inferenceOutboxService,
+                                InferenceService inferenceService,
+                                @Value("${inference.outbox.poll-interval}") Duration pollInterval,
+                                @Value("${inference.outbox.batch-size}") int batchSize) {
+        this.taskScheduler = taskScheduler;
+        this.inferenceOutboxService = inferenceOutboxService;
+        this.inferenceService = inferenceService;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    private void start() {
+        futureTask = taskScheduler.scheduleWithFixedDelay(this::relay, pollInterval);
+    }
+
+    @PreDestroy
+    private void stop() {
+        futureTask.cancel(false);
+    }
+
+    void relay() {
+        try {
+            OutboxRelayResult result;
+            do {
+                result = inferenceOutboxService.relayBatch();
+                fail(result.undeliverable());
+            } while (result.delivered() >= batchSize);
+            inferenceOutboxService.refreshBacklog();
+        } catch (RuntimeException e) {
+            log.error("Failed to relay inference outbox", e);
+        }
+    }
+
+    private void fail(List<Long> ids) {
+        if (ids.isEmpty())
+            return;
+        inferenceService.publishStatusChanges(inferenceService.markInferencesAsFail(ids.stream().map(InferenceFailMessage::new).toList()));
+    }
+}
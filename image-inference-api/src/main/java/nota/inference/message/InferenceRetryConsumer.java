@@ -0,0 +1,80 @@
+package nota.inference.message;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.service.InferenceRetryService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.converter.RecordMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class InferenceRetryConsumer implements SmartLifecycle {
+    private final ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory;
+    private final RecordMessageConverter recordMessageConverter;
+    private final InferenceRetryService inferenceRetryService;
+    private final List<ConcurrentMessageListenerContainer<String, Object>> containers = new ArrayList<>();
+
+    public InferenceRetryConsumer(ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory,
+                                  RecordMessageConverter recordMessageConverter,
+                                  InferenceRetryService inferenceRetryService) {
+        this.retryKafkaListenerContainerFactory = retryKafkaListenerContainerFactory;
+        this.recordMessageConverter = recordMessageConverter;
+        this.inferenceRetryService = inferenceRetryService;
+    }
+
+    @Override
+    public synchronized void start() {
+        for (Duration delay : inferenceRetryService.getDelays()) {
+            String topic = KafkaTopicConfig.retryTopic(delay);
+            ConcurrentMessageListenerContainer<String, Object> container = retryKafkaListenerContainerFactory.createContainer(topic);
+            container.setBeanName(topic);
+            container.getContainerProperties().setMessageListener((AcknowledgingMessageListener<String, Object>) this::handleRetry);
+            container.start();
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    void handleRetry(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        InferenceRetryMessage message;
+        try {
+            message = (InferenceRetryMessage) recordMessageConverter
+                    .toMessage(record, acknowledgment, null, InferenceRetryMessage.class).getPayload();
+        } catch (RuntimeException e) {
+            log.error("Dropping unreadable retry record at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        Duration wait = Duration.between(Instant.now(), message.dueAt());
+        if (wait.isPositive()) {
+            acknowledgment.nack(wait);
+            return;
+        }
+        if (!inferenceRetryService.redispatch(message))
+            log.debug("Skipped stale retry of inference {}", message.id());
+        acknowledgment.acknowledge();
+    }
+}
@@ -2,27 +2,44 @@ package nota.inference.message;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
 import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
 import nota.inference.dto.message.InferenceSuccessMessage;
+import nota.inference.service.InferenceRetryService;
 import nota.inference.service.InferenceService;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class KafkaConsumer {
     private final InferenceService inferenceService;
+    private final InferenceRetryService inferenceRetryService;
+
+    @KafkaListener(topics = "inference_success", containerFactory = "concurrentKafkaListenerContainerFactory",
+            concurrency = "${inference.kafka.listener.success-concurrency}")
+    public void handleInferenceSuccess(List<InferenceSuccessMessage> messages) {
+        log.debug("Received {} messages", messages.size());
+        inferenceService.publishStatusChanges(inferenceService.markInferencesAsComplete(messages));
+    }
 
-    @KafkaListener(topics = "inference_success")
-    public void handleInferenceSuccess(InferenceSuccessMessage message) {
-        log.debug("Received message: " + message);
-        inferenceService.markInferenceAsComplete(message.id(), message.result());
+    @KafkaListener(topics = "inference_fail", containerFactory = "concurrentKafkaListenerContainerFactory",
+            concurrency = "${inference.kafka.listener.fail-concurrency}")
+    public void handleInferenceFail(List<InferenceFailMessage> messages) {
+        log.debug("Received {} messages", messages.size());
+        inferenceService.publishStatusChanges(inferenceRetryService.retryOrFail(messages));
     }
 
-    @KafkaListener(topics = "inference_fail")
-    public void handleInferenceFail(InferenceFailMessage message) {
-        log.debug("Received message: " + message);
-        inferenceService.markInferenceAsFail(message.id());
+    @KafkaListener(topicPartitions = @TopicPartition(topic = KafkaTopicConfig.INFERENCE_STATUS_CHANGED_TOPIC,
+            partitions = "0-#{${inference.kafka.topics.partitions} - 1}"),
+            containerFactory = "broadcastKafkaListenerContainerFactory")
+    public void handleInferenceStatusChanged(List<InferenceStatusChangedMessage> messages) {
+        log.debug("Received {} messages", messages.size());
+        inferenceService.applyStatusChanges(messages);
     }
 }
@@ -1,15 +1,60 @@
 package nota.inference.message;
 
-import lombok.RequiredArgsConstructor;
+import nota.inference.exception.Error;
+import nota.inference.exception.InferenceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
 @Service
-@RequiredArgsConstructor
 public class KafkaPublisher {
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, Object> bulkKafkaTemplate;
+    private final Semaphore inFlightSends;
+
+    public KafkaPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                          @Qualifier("bulkKafkaTemplate") KafkaTemplate<String, Object> bulkKafkaTemplate,
+                          @Value("${inference.kafka.producer.max-in-flight-sends}") int maxInFlightSends) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.bulkKafkaTemplate = bulkKafkaTemplate;
+        this.inFlightSends = new Semaphore(maxInFlightSends);
+    }
 
     public void sendMessage(String topic, Object message) {
         kafkaTemplate.send(topic, message);
     }
+
+    public List<CompletableFuture<SendResult<String, Object>>> sendMessages(String topic, List<?> messages) {
+        return sendMessages(kafkaTemplate, topic, messages);
+    }
+
+    public List<CompletableFuture<SendResult<String, Object>>> sendBulkMessages(String topic, List<?> messages) {
+        return sendMessages(bulkKafkaTemplate, topic, messages);
+    }
+
+    private List<CompletableFuture<SendResult<String, Object>>> sendMessages(KafkaTemplate<String, Object> kafkaTemplate, String topic, List<?> messages) {
+        if (messages.isEmpty())
+            return List.of();
+        if (!inFlightSends.tryAcquire(messages.size()))
+            throw new InferenceException(Error.TOO_MANY_PENDING_INFERENCES);
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(messages.size());
+        for (Object message : messages) {
+            try {
+                futures.add(kafkaTemplate.send(topic, message)
+                        .whenComplete((_, _) -> inFlightSends.release()));
+            } catch (RuntimeException e) {
+                inFlightSends.release();
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return futures;
+    }
 }
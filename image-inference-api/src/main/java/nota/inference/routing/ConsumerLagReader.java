@@ -0,0 +1,69 @@
+package nota.inference.routing;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class ConsumerLagReader {
+    private final AdminClient adminClient;
+    private final Duration timeout;
+
+    public ConsumerLagReader(KafkaAdmin kafkaAdmin,
+                             @Value("${inference.routing.admin-timeout}") Duration timeout) {
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        this.timeout = timeout;
+    }
+
+    @PreDestroy
+    private void close() {
+        adminClient.close(timeout);
+    }
+
+    public long readLag(String groupId, String topic) throws ExecutionException, InterruptedException, TimeoutException {
+        return readOffsets(groupId, topic).lag();
+    }
+
+    public TopicOffsets readOffsets(String groupId, String topic) throws ExecutionException, InterruptedException, TimeoutException {
+        List<TopicPartition> partitions = adminClient.describeTopics(List.of(topic)).allTopicNames()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .get(topic).partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest = listOffsets(partitions, OffsetSpec.latest());
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> earliest = listOffsets(partitions, OffsetSpec.earliest());
+
+        Map<Integer, Long> latestOffsets = new HashMap<>();
+        Map<Integer, Long> committedOffsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            latestOffsets.put(partition.partition(), latest.get(partition).offset());
+            committedOffsets.put(partition.partition(), offset != null ? offset.offset() : earliest.get(partition).offset());
+        }
+        return new TopicOffsets(latestOffsets, committedOffsets);
+    }
+
+    private Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> listOffsets(List<TopicPartition> partitions, OffsetSpec spec)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        return adminClient.listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), _ -> spec)))
+                .all().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package nota.inference.routing;
+
+import nota.inference.domain.model.Runtime;
+
+import java.time.Duration;
+
+public record RuntimeLoad(
+        Runtime runtime,
+        long lag,
+        Duration serviceTime
+) {
+    public double estimatedWaitMillis() {
+        return (lag + 1) * (double) Math.max(1, serviceTime.toMillis());
+    }
+}
@@ -0,0 +1,155 @@
+package nota.inference.routing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceLatency;
+import nota.inference.domain.repository.InferenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+@Slf4j
+@Component
+public class RuntimeLoadMonitor {
+    private final TaskScheduler taskScheduler;
+    private final ConsumerLagReader consumerLagReader;
+    private final InferenceRepository inferenceRepository;
+    private final Map<Runtime, String> workerGroupIds;
+    private final Duration refreshInterval;
+    private final Duration latencyWindow;
+    private final int latencySampleSize;
+    private final Duration defaultServiceTime;
+
+    private volatile Map<Runtime, RuntimeLoad> loads;
+    private ScheduledFuture<?> futureTask;
+
+    @Autowired
+    public RuntimeLoadMonitor(TaskScheduler taskScheduler,
+                              ConsumerLagReader consumerLagReader,
+                              InferenceRepository inferenceRepository,
+                              Environment environment,
+                              @Value("${inference.routing.refresh-interval}") Duration refreshInterval,
+                              @Value("${inference.routing.latency-window}") Duration latencyWindow,
+                              @Value("${inference.routing.latency-sample-size}") int latencySampleSize,
+                              @Value("${inference.routing.default-service-time}") Duration defaultServiceTime) {
+        this(taskScheduler, consumerLagReader, inferenceRepository, resolveWorkerGroupIds(environment),
+                refreshInterval, latencyWindow, latencySampleSize, defaultServiceTime);
+    }
+
+    RuntimeLoadMonitor(TaskScheduler taskScheduler,
+                       ConsumerLagReader consumerLagReader,
+                       InferenceRepository inferenceRepository,
+                       Map<Runtime, String> workerGroupIds,
+                       Duration refreshInterval,
+                       Duration latencyWindow,
+                       int latencySampleSize,
+                       Duration defaultServiceTime) {
+        this.taskScheduler = taskScheduler;
+        this.consumerLagReader = consumerLagReader;
+        this.inferenceRepository = inferenceRepository;
+        this.workerGroupIds = workerGroupIds;
+        this.refreshInterval = refreshInterval;
+        this.latencyWindow = latencyWindow;
+        this.latencySampleSize = latencySampleSize;
+        this.defaultServiceTime = defaultServiceTime;
+        this.loads = idleLoads();
+    }
+
+    @PostConstruct
+    private void start() {
+        futureTask = taskScheduler.scheduleWithFixedDelay(this::refresh, refreshInterval);
+    }
+
+    @PreDestroy
+    private void stop() {
+        futureTask.cancel(false);
+    }
+
+    public Map<Runtime, RuntimeLoad> getLoads() {
+        return loads;
+    }
+
+    void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Runtime, RuntimeLoad> refreshed = new EnumMap<>(Runtime.class);
+        for (Runtime runtime : Runtime.values()) {
+            RuntimeLoad previous = loads.get(runtime);
+            refreshed.put(runtime, new RuntimeLoad(runtime, readLag(runtime, previous.lag()), readServiceTime(runtime, now, previous.serviceTime())));
+        }
+        loads = refreshed;
+    }
+
+    private long readLag(Runtime runtime, long fallback) {
+        try {
+            long lag = 0;
+            for (Priority priority : Priority.values())
+                lag += consumerLagReader.readLag(workerGroupIds.get(runtime), KafkaTopicConfig.inferenceRequestTopic(runtime, priority));
+            return lag;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (Exception e) {
+            log.warn("Failed to read consumer lag of {} workers: {}", runtime, e.getMessage());
+            return fallback;
+        }
+    }
+
+    private Duration readServiceTime(Runtime runtime, LocalDateTime now, Duration fallback) {
+        try {
+            List<InferenceLatency> samples = inferenceRepository.findRecentLatencies(runtime, now.minus(latencyWindow), PageRequest.ofSize(latencySampleSize));
+            if (samples.isEmpty())
+                return defaultServiceTime;
+            return serviceTime(samples, now);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read completions of {} inferences: {}", runtime, e.getMessage());
+            return fallback;
+        }
+    }
+
+    Duration serviceTime(List<InferenceLatency> samples, LocalDateTime now) {
+        Duration span = samples.size() < latencySampleSize
+                ? latencyWindow
+                : Duration.between(samples.getLast().updatedAt(), now);
+        Duration interval = span.dividedBy(samples.size());
+        Duration median = percentile(samples.stream().map(InferenceLatency::toDuration).sorted().toList(), 0.5);
+        return interval.compareTo(median) < 0 ? interval : median;
+    }
+
+    static Duration percentile(List<Duration> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private Map<Runtime, RuntimeLoad> idleLoads() {
+        Map<Runtime, RuntimeLoad> idle = new EnumMap<>(Runtime.class);
+        for (Runtime runtime : Runtime.values())
+            idle.put(runtime, new RuntimeLoad(runtime, 0, defaultServiceTime));
+        return idle;
+    }
+
+    static Map<Runtime, String> resolveWorkerGroupIds(Environment environment) {
+        Map<Runtime, String> configured = Binder.get(environment)
+                .bind("inference.routing.worker-group-ids", Bindable.mapOf(Runtime.class, String.class))
+                .orElse(Map.of());
+        Map<Runtime, String> groupIds = new EnumMap<>(Runtime.class);
+        for (Runtime runtime : Runtime.values())
+            groupIds.put(runtime, configured.getOrDefault(runtime, runtime.name().toLowerCase() + "-group"));
+        return groupIds;
+    }
+}
@@ -0,0 +1,35 @@
+package nota.inference.routing;
+
+import lombok.RequiredArgsConstructor;
+import nota.inference.domain.model.Runtime;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@RequiredArgsConstructor
+public class RuntimeRouter {
+    public static final String AUTO = "auto";
+    private final RuntimeLoadMonitor runtimeLoadMonitor;
+
+    public Runtime choose() {
+        return choose(runtimeLoadMonitor.getLoads().values(), ThreadLocalRandom.current().nextDouble());
+    }
+
+    static Runtime choose(Collection<RuntimeLoad> loads, double random) {
+        double total = 0;
+        for (RuntimeLoad load : loads)
+            total += 1 / load.estimatedWaitMillis();
+
+        double point = random * total;
+        RuntimeLoad chosen = null;
+        for (RuntimeLoad load : loads) {
+            chosen = load;
+            point -= 1 / load.estimatedWaitMillis();
+            if (point < 0)
+                break;
+        }
+        return chosen.runtime();
+    }
+}
@@ -0,0 +1,22 @@
+package nota.inference.routing;
+
+import java.util.Map;
+
+public record TopicOffsets(
+        Map<Integer, Long> latest,
+        Map<Integer, Long> committed
+) {
+    public long lag() {
+        long lag = 0;
+        for (Map.Entry<Integer, Long> partition : latest.entrySet())
+            lag += Math.max(0, partition.getValue() - committed.getOrDefault(partition.getKey(), 0L));
+        return lag;
+    }
+
+    public boolean hasConsumed(Map<Integer, Long> offsets) {
+        for (Map.Entry<Integer, Long> partition : offsets.entrySet())
+            if (committed.getOrDefault(partition.getKey(), 0L) < partition.getValue())
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package nota.inference.routing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+@Slf4j
+@Component
+public class WorkerPickupTracker {
+    private static final int MAX_SAMPLES = 10_000;
+
+    private final TaskScheduler taskScheduler;
+    private final ConsumerLagReader consumerLagReader;
+    private final Map<Runtime, String> workerGroupIds;
+    private final Duration refreshInterval;
+    private final Duration history;
+    private final Map<String, Deque<Sample>> samplesByTopic = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> futureTask;
+
+    @Autowired
+    public WorkerPickupTracker(TaskScheduler taskScheduler,
+                               ConsumerLagReader consumerLagReader,
+                               Environment environment,
+                               @Value("${inference.routing.refresh-interval}") Duration refreshInterval,
+                               @Value("${inference.routing.pickup-history}") Duration history) {
+        this(taskScheduler, consumerLagReader, RuntimeLoadMonitor.resolveWorkerGroupIds(environment), refreshInterval, history);
+    }
+
+    WorkerPickupTracker(TaskScheduler taskScheduler,
+                        ConsumerLagReader consumerLagReader,
+                        Map<Runtime, String> workerGroupIds,
+                        Duration refreshInterval,
+                        Duration history) {
+        this.taskScheduler = taskScheduler;
+        this.consumerLagReader = consumerLagReader;
+        this.workerGroupIds = workerGroupIds;
+        this.refreshInterval = refreshInterval;
+        this.history = history;
+    }
+
+    @PostConstruct
+    private void start() {
+        futureTask = taskScheduler.scheduleWithFixedDelay(this::refresh, refreshInterval);
+    }
+
+    @PreDestroy
+    private void stop() {
+        futureTask.cancel(false);
+    }
+
+    public Optional<LocalDateTime> pickedUpBefore(Runtime runtime, Priority priority, LocalDateTime asOf) {
+        Deque<Sample> samples = samplesByTopic.get(KafkaTopicConfig.inferenceRequestTopic(runtime, priority));
+        if (samples == null)
+            return Optional.empty();
+        synchronized (samples) {
+            LocalDateTime pickedUpBefore = null;
+            for (Sample sample : samples) {
+                if (sample.consumedAt == null || sample.consumedAt.isAfter(asOf))
+                    break;
+                pickedUpBefore = sample.takenAt;
+            }
+            return Optional.ofNullable(pickedUpBefore);
+        }
+    }
+
+    void refresh() {
+        for (Runtime runtime : Runtime.values())
+            for (Priority priority : Priority.values())
+                refresh(workerGroupIds.get(runtime), KafkaTopicConfig.inferenceRequestTopic(runtime, priority));
+    }
+
+    private void refresh(String groupId, String topic) {
+        LocalDateTime takenAt = LocalDateTime.now();
+        try {
+            TopicOffsets offsets = consumerLagReader.readOffsets(groupId, topic);
+            record(topic, takenAt, offsets, LocalDateTime.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to read offsets of {} for {}: {}", topic, groupId, e.getMessage());
+        }
+    }
+
+    void record(String topic, LocalDateTime takenAt, TopicOffsets offsets, LocalDateTime now) {
+        Deque<Sample> samples = samplesByTopic.computeIfAbsent(topic, _ -> new ArrayDeque<>());
+        synchronized (samples) {
+            Sample last = samples.peekLast();
+            if (last == null || last.consumedAt != null || !last.endOffsets.equals(offsets.latest()))
+                samples.addLast(new Sample(takenAt, Map.copyOf(offsets.latest())));
+            for (Sample sample : samples)
+                if (sample.consumedAt == null && offsets.hasConsumed(sample.endOffsets))
+                    sample.consumedAt = now;
+            prune(samples, now.minus(history));
+        }
+    }
+
+    private void prune(Deque<Sample> samples, LocalDateTime cutoff) {
+        while (samples.size() > 1) {
+            Iterator<Sample> iterator = samples.iterator();
+            iterator.next();
+            Sample second = iterator.next();
+            if (second.consumedAt == null || second.consumedAt.isAfter(cutoff))
+                break;
+            samples.removeFirst();
+        }
+        Iterator<Sample> iterator = samples.iterator();
+        while (samples.size() > MAX_SAMPLES && iterator.hasNext()) {
+            if (iterator.next().consumedAt == null)
+                iterator.remove();
+        }
+    }
+
+    private static final class Sample {
+        private final LocalDateTime takenAt;
+        private final Map<Integer, Long> endOffsets;
+        private LocalDateTime consumedAt;
+
+        private Sample(LocalDateTime takenAt, Map<Integer, Long> endOffsets) {
+            this.takenAt = takenAt;
+            this.endOffsets = endOffsets;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.storage.ImageStore;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
+@Service
+public class ImageReclaimService {
+    private final InferenceRepository inferenceRepository;
+    private final ImageStore imageStore;
+
+    public ImageReclaimService(InferenceRepository inferenceRepository, ImageStore imageStore) {
+        this.inferenceRepository = inferenceRepository;
+        this.imageStore = imageStore;
+    }
+
+    public int reclaim(Collection<String> keys) {
+        if (keys.isEmpty())
+            return 0;
+        Set<String> unreferenced = new HashSet<>(keys);
+        inferenceRepository.findReferencedImageKeys(keys).forEach(unreferenced::remove);
+        return delete(unreferenced);
+    }
+
+    public int reclaimCreatedBefore(LocalDateTime before, int pageSize) {
+        int reclaimed = 0;
+        String afterKey = "";
+        while (true) {
+            List<String> keys = inferenceRepository.findImageKeysCreatedBefore(before, afterKey, PageRequest.ofSize(pageSize));
+            if (keys.isEmpty())
+                return reclaimed;
+
+            Set<String> unreferenced = new HashSet<>(keys);
+            inferenceRepository.findImageKeysReferencedSince(keys, before).forEach(unreferenced::remove);
+            reclaimed += delete(unreferenced);
+            if (keys.size() < pageSize)
+                return reclaimed;
+            afterKey = keys.getLast();
+        }
+    }
+
+    private int delete(Set<String> keys) {
+        if (keys.isEmpty())
+            return 0;
+        try {
+            imageStore.delete(keys);
+            return keys.size();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete {} unreferenced images", keys.size(), e);
+            return 0;
+        }
+    }
+}
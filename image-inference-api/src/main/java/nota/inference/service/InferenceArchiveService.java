@@ -0,0 +1,199 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.archive.ArchivedInference;
+import nota.inference.archive.InferenceArchiveReader;
+import nota.inference.archive.InferenceArchiveWriter;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceArchiveSegment;
+import nota.inference.domain.repository.InferenceArchiveSegmentRepository;
+import nota.inference.domain.repository.InferenceHistoryFilter;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.response.InferenceHistoryItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+public class InferenceArchiveService {
+    private final InferenceRepository inferenceRepository;
+    private final InferenceArchiveSegmentRepository inferenceArchiveSegmentRepository;
+    private final ImageReclaimService imageReclaimService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration olderThan;
+    private final Duration retention;
+    private final int segmentRows;
+
+    public InferenceArchiveService(InferenceRepository inferenceRepository,
+                                   InferenceArchiveSegmentRepository inferenceArchiveSegmentRepository,
+                                   ImageReclaimService imageReclaimService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${inference.archive.enabled}") boolean enabled,
+                                   @Value("${inference.archive.directory}") Path directory,
+                                   @Value("${inference.archive.older-than}") Duration olderThan,
+                                   @Value("${inference.history-purge.retention}") Duration retention,
+                                   @Value("${inference.archive.segment-rows}") int segmentRows) {
+        this.inferenceRepository = inferenceRepository;
+        this.inferenceArchiveSegmentRepository = inferenceArchiveSegmentRepository;
+        this.imageReclaimService = imageReclaimService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.directory = directory;
+        this.olderThan = olderThan;
+        this.retention = retention;
+        this.segmentRows = segmentRows;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int archiveFinishedInferences() {
+        expireSegments(LocalDateTime.now().minus(retention));
+        LocalDateTime cutoff = LocalDateTime.now().minus(olderThan);
+        int archived = 0;
+        int rows;
+        do {
+            rows = archiveSegment(cutoff);
+            archived += rows;
+        } while (rows >= segmentRows && !Thread.currentThread().isInterrupted());
+        log.info("Archived {} finished inferences created before {}", archived, cutoff);
+        return archived;
+    }
+
+    int archiveSegment(LocalDateTime cutoff) {
+        List<Inference> inferences = inferenceRepository.findArchivable(cutoff, PageRequest.ofSize(segmentRows));
+        if (inferences.isEmpty())
+            return 0;
+
+        List<ArchivedInference> rows = inferences.stream().map(ArchivedInference::from).toList();
+        InferenceArchiveSegment segment = toSegment(rows);
+        Path file = directory.resolve(segment.getFileName());
+        try {
+            InferenceArchiveWriter.write(file, rows);
+            transactionTemplate.executeWithoutResult(_ -> {
+                inferenceArchiveSegmentRepository.save(segment);
+                inferenceRepository.deleteAllByIdInBatch(rows.stream().map(ArchivedInference::id).toList());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        log.info("Archived {} inferences to {}", rows.size(), file);
+        imageReclaimService.reclaim(inferences.stream().map(Inference::getImageKey).filter(Objects::nonNull).distinct().toList());
+        return rows.size();
+    }
+
+    int expireSegments(LocalDateTime cutoff) {
+        List<InferenceArchiveSegment> expired = inferenceArchiveSegmentRepository.findExpired(cutoff);
+        for (InferenceArchiveSegment segment : expired) {
+            inferenceArchiveSegmentRepository.delete(segment);
+            deleteQuietly(directory.resolve(segment.getFileName()));
+        }
+        if (!expired.isEmpty())
+            log.info("Expired {} archive segments older than {}", expired.size(), cutoff);
+        return expired.size();
+    }
+
+    public List<InferenceHistoryItem> findHistory(InferenceHistoryFilter filter, int limit, LocalDateTime floor) {
+        if (!enabled)
+            return List.of();
+
+        LocalDateTime from = latest(latest(filter.createdFrom(), floor), LocalDateTime.now().minus(retention));
+        LocalDateTime to = earliest(filter.createdTo(), filter.cursorCreatedAt());
+        List<ArchivedInference> found = new ArrayList<>();
+        for (InferenceArchiveSegment segment : inferenceArchiveSegmentRepository.findOverlapping(from, to)) {
+            if (found.size() >= limit && segment.getMaxCreatedAt().isBefore(found.get(limit - 1).createdAt()))
+                break;
+            found.addAll(read(segment, filter, from, limit));
+            found.sort(InferenceArchiveWriter.HISTORY_ORDER);
+            if (found.size() > limit)
+                found.subList(limit, found.size()).clear();
+        }
+        return found.stream().map(ArchivedInference::toHistoryItem).toList();
+    }
+
+    private List<ArchivedInference> read(InferenceArchiveSegment segment, InferenceHistoryFilter filter, LocalDateTime from, int limit) {
+        List<ArchivedInference> rows = new ArrayList<>();
+        try (InferenceArchiveReader reader = InferenceArchiveReader.open(directory.resolve(segment.getFileName()))) {
+            while (reader.hasNext() && rows.size() < limit) {
+                ArchivedInference row = reader.next();
+                if (row.createdAt().isBefore(from))
+                    break;
+                if (matches(row, filter))
+                    rows.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private boolean matches(ArchivedInference row, InferenceHistoryFilter filter) {
+        if (filter.userId() != null && !filter.userId().equals(row.userId()))
+            return false;
+        if (filter.runtime() != null && !filter.runtime().name().equals(row.runtime()))
+            return false;
+        if (filter.createdFrom() != null && (row.createdAt().isBefore(filter.createdFrom()) || !row.createdAt().isBefore(filter.createdTo())))
+            return false;
+        if (filter.cursorId() != null)
+            return row.createdAt().isBefore(filter.cursorCreatedAt())
+                    || (row.createdAt().isEqual(filter.cursorCreatedAt()) && row.id() < filter.cursorId());
+        return true;
+    }
+
+    private InferenceArchiveSegment toSegment(List<ArchivedInference> rows) {
+        long minId = rows.stream().mapToLong(ArchivedInference::id).min().orElseThrow();
+        long maxId = rows.stream().mapToLong(ArchivedInference::id).max().orElseThrow();
+        return InferenceArchiveSegment.builder()
+                .fileName("inferences-" + minId + "-" + maxId + ".cols")
+                .rowCount(rows.size())
+                .minId(minId)
+                .maxId(maxId)
+                .minCreatedAt(rows.stream().map(ArchivedInference::createdAt).min(Comparator.naturalOrder()).orElseThrow())
+                .maxCreatedAt(rows.stream().map(ArchivedInference::createdAt).max(Comparator.naturalOrder()).orElseThrow())
+                .build();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete unreferenced archive segment {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.cache.InferenceStatusCache;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.message.KafkaPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class InferenceHistoryPurgeService {
+    private final InferenceRepository inferenceRepository;
+    private final InferenceStatusCache inferenceStatusCache;
+    private final KafkaPublisher kafkaPublisher;
+    private final ImageReclaimService imageReclaimService;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Duration throttle;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public InferenceHistoryPurgeService(InferenceRepository inferenceRepository,
+                                        InferenceStatusCache inferenceStatusCache,
+                                        KafkaPublisher kafkaPublisher,
+                                        ImageReclaimService imageReclaimService,
+                                        @Value("${inference.history-purge.retention}") Duration retention,
+                                        @Value("${inference.history-purge.chunk-size}") int chunkSize,
+                                        @Value("${inference.history-purge.throttle}") Duration throttle) {
+        this.inferenceRepository = inferenceRepository;
+        this.inferenceStatusCache = inferenceStatusCache;
+        this.kafkaPublisher = kafkaPublisher;
+        this.imageReclaimService = imageReclaimService;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.throttle = throttle;
+    }
+
+    public int purgeExpiredHistory() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous inference history purge is still running, skipping this run");
+            return 0;
+        }
+        try {
+            return purgeCreatedBefore(LocalDateTime.now().minus(retention));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    int purgeCreatedBefore(LocalDateTime cutoff) {
+        Optional<Long> maybeMaxId = inferenceRepository.findMaxIdCreatedBefore(cutoff);
+        if (maybeMaxId.isEmpty())
+            return 0;
+
+        long maxId = maybeMaxId.get();
+        long afterId = 0;
+        int purged = 0;
+        log.info("Purging inference history created before {} up to id {}", cutoff, maxId);
+        while (true) {
+            List<Long> ids = inferenceRepository.findPurgeableIds(afterId, maxId, cutoff, PageRequest.ofSize(chunkSize));
+            if (ids.isEmpty())
+                break;
+
+            List<String> imageKeys = inferenceRepository.findImageKeysByIdIn(ids);
+            inferenceRepository.deleteAllByIdInBatch(ids);
+            invalidateStatus(ids);
+            imageReclaimService.reclaim(imageKeys);
+            purged += ids.size();
+            afterId = ids.getLast();
+            log.info("Purged {} inference rows, reached id {} of {}", purged, afterId, maxId);
+
+            if (ids.size() < chunkSize || !pause())
+                break;
+        }
+        log.info("Finished purging inference history, {} rows deleted", purged);
+        return purged;
+    }
+
+    private void invalidateStatus(List<Long> ids) {
+        InferenceStatusChangedMessage message = InferenceStatusChangedMessage.ofDeleted(ids);
+        inferenceStatusCache.apply(message);
+        kafkaPublisher.sendMessage(KafkaTopicConfig.INFERENCE_STATUS_CHANGED_TOPIC, message);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(throttle);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Inference history purge was interrupted");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceOutbox;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.repository.InferenceOutboxRepository;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceRequestMessage;
+import nota.inference.exception.Error;
+import nota.inference.exception.InferenceException;
+import nota.inference.message.KafkaPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class InferenceOutboxService {
+    private final InferenceOutboxRepository inferenceOutboxRepository;
+    private final InferenceRepository inferenceRepository;
+    private final KafkaPublisher kafkaPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long maxBacklog;
+    private final Duration sendTimeout;
+    private final Duration claimTimeout;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public InferenceOutboxService(InferenceOutboxRepository inferenceOutboxRepository,
+                                  InferenceRepository inferenceRepository,
+                                  KafkaPublisher kafkaPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inference.outbox.batch-size}") int batchSize,
+                                  @Value("${inference.outbox.max-attempts}") int maxAttempts,
+                                  @Value("${inference.outbox.max-backlog}") long maxBacklog,
+                                  @Value("${inference.outbox.send-timeout}") Duration sendTimeout,
+                                  @Value("${inference.outbox.claim-timeout}") Duration claimTimeout) {
+        this.inferenceOutboxRepository = inferenceOutboxRepository;
+        this.inferenceRepository = inferenceRepository;
+        this.kafkaPublisher = kafkaPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.maxBacklog = maxBacklog;
+        this.sendTimeout = sendTimeout;
+        this.claimTimeout = claimTimeout;
+    }
+
+    public void checkBacklog() {
+        if (backlog.get() >= maxBacklog)
+            throw new InferenceException(Error.TOO_MANY_PENDING_INFERENCES);
+    }
+
+    public void enqueue(List<Inference> leaders) {
+        inferenceOutboxRepository.saveAll(leaders.stream().map(InferenceOutbox::from).toList());
+    }
+
+    public void refreshBacklog() {
+        backlog.set(inferenceOutboxRepository.count());
+    }
+
+    public OutboxRelayResult relayBatch() {
+        List<InferenceOutbox> batch = transactionTemplate.execute(_ -> claimBatch(LocalDateTime.now()));
+        if (batch == null || batch.isEmpty())
+            return OutboxRelayResult.empty();
+
+        Map<InferenceOutbox, CompletableFuture<SendResult<String, Object>>> deliveries = send(batch);
+        awaitDeliveries(deliveries.values());
+
+        List<InferenceOutbox> delivered = new ArrayList<>();
+        List<InferenceOutbox> failed = new ArrayList<>();
+        List<InferenceOutbox> exhausted = new ArrayList<>();
+        List<InferenceOutbox> unsent = new ArrayList<>();
+        for (InferenceOutbox entry : batch) {
+            CompletableFuture<SendResult<String, Object>> future = deliveries.get(entry);
+            if (future == null) {
+                unsent.add(entry);
+                continue;
+            }
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                delivered.add(entry);
+                continue;
+            }
+            entry.recordFailedAttempt();
+            if (entry.getAttempts() >= maxAttempts)
+                exhausted.add(entry);
+            else
+                failed.add(entry);
+        }
+        if (!exhausted.isEmpty())
+            log.warn("Giving up on {} inference requests after {} attempts", exhausted.size(), maxAttempts);
+        transactionTemplate.executeWithoutResult(_ -> {
+            markDispatched(delivered);
+            deleteEntries(delivered);
+            deleteEntries(exhausted);
+            if (!failed.isEmpty())
+                inferenceOutboxRepository.recordFailedAttempts(ids(failed));
+            if (!unsent.isEmpty())
+                inferenceOutboxRepository.releaseClaims(ids(unsent));
+        });
+        return new OutboxRelayResult(delivered.size(), exhausted.stream().map(InferenceOutbox::getInferenceId).toList());
+    }
+
+    // the claim commits before anything is sent, so no row lock or connection is held while the broker acks
+    private List<InferenceOutbox> claimBatch(LocalDateTime now) {
+        List<InferenceOutbox> batch = inferenceOutboxRepository.findRelayBatch(now, PageRequest.ofSize(batchSize));
+        LocalDateTime claimedUntil = now.plus(claimTimeout);
+        batch.forEach(entry -> entry.claim(claimedUntil));
+        return batch;
+    }
+
+    private Map<InferenceOutbox, CompletableFuture<SendResult<String, Object>>> send(List<InferenceOutbox> batch) {
+        Map<InferenceOutbox, CompletableFuture<SendResult<String, Object>>> deliveries = new LinkedHashMap<>();
+        try {
+            batch.stream()
+                    .collect(Collectors.groupingBy(entry -> KafkaTopicConfig.inferenceRequestTopic(entry.getRuntime(), entry.getPriority()),
+                            LinkedHashMap::new, Collectors.toList()))
+                    .forEach((topic, entries) -> {
+                        List<InferenceRequestMessage> messages = entries.stream()
+                                .map(entry -> InferenceRequestMessage.of(entry.getInferenceId(), entry.getRuntime(), entry.getImageKey()))
+                                .toList();
+                        List<CompletableFuture<SendResult<String, Object>>> futures = Priority.LOW.equals(entries.getFirst().getPriority())
+                                ? kafkaPublisher.sendBulkMessages(topic, messages)
+                                : kafkaPublisher.sendMessages(topic, messages);
+                        for (int i = 0; i < entries.size(); i++)
+                            deliveries.put(entries.get(i), futures.get(i));
+                    });
+        } catch (InferenceException e) {
+            log.warn("Producer is saturated, retrying the outbox on the next relay");
+        }
+        return deliveries;
+    }
+
+    // stamped after the broker acked, so the sweeper counts its timeout from the delivery and not from the enqueue
+    private void markDispatched(List<InferenceOutbox> entries) {
+        if (!entries.isEmpty())
+            inferenceRepository.markDispatched(entries.stream().map(InferenceOutbox::getInferenceId).toList(), LocalDateTime.now());
+    }
+
+    private void deleteEntries(List<InferenceOutbox> entries) {
+        if (!entries.isEmpty())
+            inferenceOutboxRepository.deleteAllByIdInBatch(ids(entries));
+    }
+
+    private void awaitDeliveries(Collection<CompletableFuture<SendResult<String, Object>>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Some inference requests were not delivered: {}", e.getMessage());
+        }
+    }
+
+    private static List<Long> ids(List<InferenceOutbox> entries) {
+        return entries.stream().map(InferenceOutbox::getId).toList();
+    }
+}
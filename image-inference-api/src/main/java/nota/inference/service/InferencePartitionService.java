@@ -0,0 +1,87 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.domain.repository.InferencePartition;
+import nota.inference.domain.repository.InferencePartitionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+public class InferencePartitionService {
+    private final InferencePartitionRepository inferencePartitionRepository;
+    private final ImageReclaimService imageReclaimService;
+    private final boolean enabled;
+    private final int precreateDays;
+    private final Duration retention;
+    private final int chunkSize;
+
+    public InferencePartitionService(InferencePartitionRepository inferencePartitionRepository,
+                                     ImageReclaimService imageReclaimService,
+                                     @Value("${inference.partitioning.enabled}") boolean enabled,
+                                     @Value("${inference.partitioning.precreate-days}") int precreateDays,
+                                     @Value("${inference.history-purge.retention}") Duration retention,
+                                     @Value("${inference.history-purge.chunk-size}") int chunkSize) {
+        this.inferencePartitionRepository = inferencePartitionRepository;
+        this.imageReclaimService = imageReclaimService;
+        this.enabled = enabled;
+        this.precreateDays = precreateDays;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void createUpcomingPartitions() {
+        createUpcomingPartitions(LocalDate.now());
+    }
+
+    public int dropExpiredPartitions() {
+        return dropExpiredPartitions(LocalDateTime.now().minus(retention));
+    }
+
+    void createUpcomingPartitions(LocalDate today) {
+        List<InferencePartition> partitions = inferencePartitionRepository.findPartitions();
+        LocalDate lastDay = today.plusDays(precreateDays);
+        if (partitions.isEmpty()) {
+            log.warn("Partitioning inferences by day, this rebuilds the table once");
+            inferencePartitionRepository.partitionByDay(today, today.datesUntil(lastDay.plusDays(1)).toList());
+            return;
+        }
+
+        LocalDate coveredUntil = partitions.stream()
+                .map(InferencePartition::upperBound)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .orElse(today);
+        List<LocalDate> days = coveredUntil.datesUntil(lastDay.plusDays(1)).toList();
+        if (days.isEmpty())
+            return;
+        inferencePartitionRepository.addDailyPartitions(days);
+        log.info("Created inference partitions from {} to {}", days.getFirst(), days.getLast());
+    }
+
+    int dropExpiredPartitions(LocalDateTime cutoff) {
+        List<InferencePartition> expiredPartitions = inferencePartitionRepository.findPartitions().stream()
+                .filter(partition -> !partition.isMaxValue())
+                .filter(partition -> !partition.upperBound().atStartOfDay().isAfter(cutoff))
+                .toList();
+        if (expiredPartitions.isEmpty())
+            return 0;
+
+        LocalDate droppedUntil = expiredPartitions.stream().map(InferencePartition::upperBound).max(LocalDate::compareTo).orElseThrow();
+        imageReclaimService.reclaimCreatedBefore(droppedUntil.atStartOfDay(), chunkSize);
+        List<String> expired = expiredPartitions.stream().map(InferencePartition::name).toList();
+        inferencePartitionRepository.dropPartitions(expired);
+        log.info("Dropped expired inference partitions {}", expired);
+        return expired.size();
+    }
+}
@@ -0,0 +1,43 @@
+package nota.inference.service;
+
+import nota.inference.cache.InferenceStatusSnapshot;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+public class InferenceResultNotifier {
+    private final Map<Long, Set<Consumer<InferenceStatusSnapshot>>> listeners = new ConcurrentHashMap<>();
+
+    public Runnable subscribe(Long id, Consumer<InferenceStatusSnapshot> listener) {
+        listeners.compute(id, (_, registered) -> {
+            Set<Consumer<InferenceStatusSnapshot>> updated = registered == null ? ConcurrentHashMap.newKeySet() : registered;
+            updated.add(listener);
+            return updated;
+        });
+        return () -> listeners.computeIfPresent(id, (_, registered) -> {
+            registered.remove(listener);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    public void publish(InferenceStatusChangedMessage message) {
+        for (Long id : message.ids()) {
+            Set<Consumer<InferenceStatusSnapshot>> registered = listeners.remove(id);
+            if (registered == null)
+                continue;
+            InferenceStatusSnapshot snapshot = message.isDeleted()
+                    ? InferenceStatusSnapshot.ofDeleted(id)
+                    : new InferenceStatusSnapshot(id, message.status(), message.result());
+            registered.forEach(listener -> listener.accept(snapshot));
+        }
+    }
+
+    int waiting() {
+        return listeners.size();
+    }
+}
@@ -0,0 +1,88 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceDeadLetterMessage;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.message.KafkaPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class InferenceRetryService {
+    private final InferenceRepository inferenceRepository;
+    private final InferenceService inferenceService;
+    private final InferenceOutboxService inferenceOutboxService;
+    private final KafkaPublisher kafkaPublisher;
+    private final List<Duration> delays;
+
+    public InferenceRetryService(InferenceRepository inferenceRepository,
+                                 InferenceService inferenceService,
+                                 InferenceOutboxService inferenceOutboxService,
+                                 KafkaPublisher kafkaPublisher,
+                                 @Value("${inference.retry.delays}") List<Duration> delays) {
+        this.inferenceRepository = inferenceRepository;
+        this.inferenceService = inferenceService;
+        this.inferenceOutboxService = inferenceOutboxService;
+        this.kafkaPublisher = kafkaPublisher;
+        this.delays = delays;
+    }
+
+    public List<Duration> getDelays() {
+        return delays;
+    }
+
+    public List<InferenceStatusChangedMessage> retryOrFail(List<InferenceFailMessage> messages) {
+        Set<Long> ids = messages.stream().map(InferenceFailMessage::id).collect(Collectors.toSet());
+        List<Inference> leaders = inferenceRepository.findAllById(ids).stream()
+                .filter(inference -> inference.isProcessing() && inference.getLeaderId() == null)
+                .toList();
+
+        List<Inference> exhausted = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Inference leader : leaders) {
+            if (leader.getRetryCount() < delays.size())
+                scheduleRetry(leader, now);
+            else
+                exhausted.add(leader);
+        }
+        if (exhausted.isEmpty())
+            return List.of();
+
+        exhausted.forEach(leader -> kafkaPublisher.sendMessage(KafkaTopicConfig.INFERENCE_DEAD_LETTER_TOPIC, InferenceDeadLetterMessage.from(leader)));
+        log.warn("Dead-lettered {} inferences after {} retries", exhausted.size(), delays.size());
+        return inferenceService.markInferencesAsFail(exhausted.stream().map(leader -> new InferenceFailMessage(leader.getId())).toList());
+    }
+
+    public boolean redispatch(InferenceRetryMessage message) {
+        Inference leader = inferenceRepository.findById(message.id()).orElse(null);
+        if (leader == null || !leader.isProcessing() || leader.getLeaderId() != null
+                || leader.getRetryCount() != message.attempt() || leader.getSweepCount() != message.sweeps())
+            return false;
+
+        inferenceOutboxService.enqueue(List.of(leader));
+        return true;
+    }
+
+    private void scheduleRetry(Inference leader, Instant now) {
+        Duration delay = delays.get(leader.getRetryCount());
+        Instant dueAt = now.plus(delay);
+        InferenceRetryMessage message = InferenceRetryMessage.of(leader, dueAt);
+        inferenceRepository.markRetried(List.of(leader.getId()), LocalDateTime.ofInstant(dueAt, ZoneId.systemDefault()));
+        kafkaPublisher.sendMessage(KafkaTopicConfig.retryTopic(delay), message);
+    }
+}
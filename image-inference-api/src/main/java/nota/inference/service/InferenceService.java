@@ -1,85 +1,350 @@
 package nota.inference.service;
 
-import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import nota.inference.cache.InFlightInferenceRegistry;
+import nota.inference.cache.InferenceResultCache;
+import nota.inference.cache.InferenceStatusCache;
+import nota.inference.cache.InferenceStatusSnapshot;
+import nota.inference.config.KafkaTopicConfig;
 import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Priority;
 import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceHistoryFilter;
 import nota.inference.domain.repository.InferenceRepository;
-import nota.inference.dto.message.InferenceRequestMessage;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.dto.message.InferenceSuccessMessage;
+import nota.inference.dto.response.ExecuteBatchInferenceResponse;
 import nota.inference.dto.response.ExecuteInferenceResponse;
+import nota.inference.dto.response.InferenceHistoryCursor;
 import nota.inference.dto.response.InferenceHistoryItem;
+import nota.inference.dto.response.InferenceHistoryResponse;
 import nota.inference.dto.response.InferenceResultResponse;
 import nota.inference.exception.Error;
 import nota.inference.exception.InferenceException;
 import nota.inference.message.KafkaPublisher;
+import nota.inference.routing.RuntimeRouter;
+import nota.inference.storage.ImageStore;
 import nota.inference.util.FileUtil;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
-import org.springframework.data.jpa.domain.Specification;
+import nota.inference.webhook.WebhookCallback;
+import nota.inference.webhook.WebhookDispatcher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class InferenceService {
     private static final Set<String> VALID_FILE_EXTENSIONS = Set.of("jpg", "png", "jpeg");
-    private final KafkaPublisher kafkaPublisher;
     private final InferenceRepository inferenceRepository;
+    private final ImageStore imageStore;
+    private final InferenceResultCache inferenceResultCache;
+    private final InFlightInferenceRegistry inFlightInferenceRegistry;
+    private final InferenceOutboxService inferenceOutboxService;
+    private final InferenceStatusCache inferenceStatusCache;
+    private final KafkaPublisher kafkaPublisher;
+    private final InferenceResultNotifier inferenceResultNotifier;
+    private final WebhookDispatcher webhookDispatcher;
+    private final InferenceArchiveService inferenceArchiveService;
+    private final RuntimeRouter runtimeRouter;
+    private final ImageReclaimService imageReclaimService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExecuteInferenceResponse executeInference(MultipartFile file, String runtime, String userId, String callbackUrl, String priority) throws IOException {
+        validateFileExtension(file);
+        inferenceOutboxService.checkBacklog();
+
+        List<Inference> inferences = submitInferences(List.of(file), resolveRuntime(runtime), userId, null, callbackUrl, Priority.valueOf(priority.toUpperCase()));
+        return ExecuteInferenceResponse.of(inferences.getFirst().getId(), inferences.getFirst().getRuntime());
+    }
+
+    public ExecuteBatchInferenceResponse executeBatchInference(List<MultipartFile> files, String runtime, String userId, String callbackUrl, String priority) throws IOException {
+        files.forEach(this::validateFileExtension);
+        inferenceOutboxService.checkBacklog();
 
-    public ExecuteInferenceResponse executeInference(MultipartFile file, String runtime, String userId) throws IOException {
+        String batchId = UUID.randomUUID().toString();
+        List<Inference> inferences = submitInferences(files, resolveRuntime(runtime), userId, batchId, callbackUrl, Priority.valueOf(priority.toUpperCase()));
+        return ExecuteBatchInferenceResponse.of(batchId, inferences.getFirst().getRuntime(), inferences.stream().map(Inference::getId).toList());
+    }
+
+    private Runtime resolveRuntime(String runtime) {
+        if (RuntimeRouter.AUTO.equalsIgnoreCase(runtime))
+            return runtimeRouter.choose();
+        return Runtime.valueOf(runtime.toUpperCase());
+    }
+
+    private void validateFileExtension(MultipartFile file) {
         FileUtil.getFileExtension(file)
                 .map(String::toLowerCase)
                 .filter(VALID_FILE_EXTENSIONS::contains)
                 .orElseThrow(() -> new InferenceException(Error.NOT_ALLOWED_FILE));
+    }
 
-        Inference saved = inferenceRepository.save(
-                Inference.of(Runtime.valueOf(runtime.toUpperCase()), file.getOriginalFilename(), userId));
+    private List<Inference> submitInferences(List<MultipartFile> files, Runtime runtime, String userId, String batchId, String callbackUrl,
+                                             Priority priority) throws IOException {
+        List<String> imageKeys = new ArrayList<>(files.size());
+        for (MultipartFile file : files)
+            imageKeys.add(FileUtil.getContentHash(file));
 
-        String topic = getKafkaTopicFromRuntime(runtime);
-        kafkaPublisher.sendMessage(topic, InferenceRequestMessage.of(saved.getId(), file));
+        List<Inference> inferences = new ArrayList<>(Collections.nCopies(files.size(), null));
+        Map<String, Inference> leaders = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            String imageKey = imageKeys.get(i);
+            String fileName = files.get(i).getOriginalFilename();
+            Optional<Inference> maybeInference = inferenceResultCache.get(imageKey, runtime)
+                    .map(result -> Inference.ofCompleted(runtime, fileName, userId, imageKey, result))
+                    .or(() -> inFlightInferenceRegistry.findLeader(imageKey, runtime)
+                            .map(leaderId -> Inference.ofFollower(runtime, fileName, userId, imageKey, leaderId)));
+            if (maybeInference.isPresent()) {
+                inferences.set(i, maybeInference.get());
+            } else if (!leaders.containsKey(imageKey)) {
+                imageStore.save(imageKey, files.get(i));
+                Inference leader = Inference.of(runtime, fileName, userId, imageKey);
+                inferences.set(i, leader);
+                leaders.put(imageKey, leader);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(_ -> saveInferences(inferences, leaders, files, imageKeys, runtime, userId, batchId, callbackUrl, priority));
+        } catch (RuntimeException e) {
+            try {
+                imageReclaimService.reclaim(leaders.keySet());
+            } catch (RuntimeException reclaimFailure) {
+                e.addSuppressed(reclaimFailure);
+            }
+            throw e;
+        }
+        return inferences;
+    }
+
+    private void saveInferences(List<Inference> inferences, Map<String, Inference> leaders, List<MultipartFile> files, List<String> imageKeys,
+                                Runtime runtime, String userId, String batchId, String callbackUrl, Priority priority) {
+        leaders.values().forEach(leader -> {
+            leader.assignBatch(batchId);
+            leader.assignCallback(callbackUrl);
+            leader.assignPriority(priority);
+        });
+        inferenceRepository.saveAll(leaders.values());
+
+        Set<Inference> leaderRows = new HashSet<>(leaders.values());
+        List<Inference> others = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (inferences.get(i) == null) {
+                Inference leader = leaders.get(imageKeys.get(i));
+                inferences.set(i, Inference.ofFollower(runtime, files.get(i).getOriginalFilename(), userId, leader.getImageKey(), leader.getId()));
+            }
+            if (!leaderRows.contains(inferences.get(i)))
+                others.add(inferences.get(i));
+        }
+        others.forEach(inference -> {
+            inference.assignBatch(batchId);
+            inference.assignCallback(callbackUrl);
+            inference.assignPriority(priority);
+        });
+        inferenceRepository.saveAll(others);
+
+        List<Inference> published = new ArrayList<>(leaders.values());
+        published.addAll(reconcileWithLeaders(others, leaders.values()));
+        registerAfterCommit(published);
+        inferenceOutboxService.enqueue(published);
+
+        if (callbackUrl != null)
+            webhookDispatcher.dispatch(others.stream()
+                    .filter(inference -> !inference.isProcessing())
+                    .map(WebhookCallback::from)
+                    .toList());
+    }
 
-        return ExecuteInferenceResponse.of(saved.getId());
+    private void registerAfterCommit(List<Inference> leaders) {
+        Runnable register = () -> leaders.forEach(leader -> inFlightInferenceRegistry.register(leader.getImageKey(), leader.getRuntime(), leader.getId()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            register.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                register.run();
+            }
+        });
     }
 
-    private String getKafkaTopicFromRuntime(String runtime) {
-        return runtime.toLowerCase() + "_inference_request";
+    private List<Inference> reconcileWithLeaders(List<Inference> inferences, Collection<Inference> batchLeaders) {
+        Set<Long> batchLeaderIds = batchLeaders.stream().map(Inference::getId).collect(Collectors.toSet());
+        Map<Long, List<Inference>> followersByLeaderId = inferences.stream()
+                .filter(inference -> inference.getLeaderId() != null && !batchLeaderIds.contains(inference.getLeaderId()))
+                .collect(Collectors.groupingBy(Inference::getLeaderId));
+        if (followersByLeaderId.isEmpty())
+            return List.of();
+
+        Map<Long, Inference> leadersById = inferenceRepository.findAllById(followersByLeaderId.keySet()).stream()
+                .collect(Collectors.toMap(Inference::getId, Function.identity()));
+        List<Inference> changed = new ArrayList<>();
+        List<Inference> promoted = new ArrayList<>();
+        followersByLeaderId.forEach((leaderId, followers) -> {
+            Inference leader = leadersById.get(leaderId);
+            if (leader != null && leader.isProcessing()) {
+                if (leader.isLowPriority() && !followers.getFirst().isLowPriority()) {
+                    leader.assignPriority(Priority.HIGH);
+                    changed.add(leader);
+                    promoted.add(leader);
+                }
+                return;
+            }
+
+            Inference first = followers.getFirst();
+            inFlightInferenceRegistry.remove(first.getImageKey(), first.getRuntime(), leaderId);
+            if (leader != null) {
+                followers.forEach(follower -> follower.copyOutcome(leader));
+            } else {
+                first.promoteToLeader();
+                followers.subList(1, followers.size()).forEach(follower -> follower.followLeader(first.getId()));
+                promoted.add(first);
+            }
+            changed.addAll(followers);
+        });
+        inferenceRepository.saveAll(changed);
+        return promoted;
     }
 
     @Transactional
-    public void markInferenceAsComplete(Long id, String result) {
-        Inference inference = inferenceRepository.findById(id)
-                .filter(Inference::isProcessing)
-                .orElseThrow(() -> new InferenceException(Error.INFERENCE_NOT_FOUND));
+    public List<InferenceStatusChangedMessage> markInferencesAsComplete(List<InferenceSuccessMessage> messages) {
+        Map<Long, String> resultsById = new HashMap<>();
+        messages.forEach(message -> resultsById.put(message.id(), message.result()));
+        Map<Inference, List<Inference>> leaders = findProcessingLeaders(resultsById.keySet());
 
-        inference.complete(result);
+        Map<String, List<Long>> leaderIdsByResult = new HashMap<>();
+        Map<String, List<Long>> changedIdsByResult = new HashMap<>();
+        List<WebhookCallback> callbacks = new ArrayList<>();
+        leaders.forEach((leader, changed) -> {
+            String result = resultsById.get(leader.getId());
+            leaderIdsByResult.computeIfAbsent(result, _ -> new ArrayList<>()).add(leader.getId());
+            changed.forEach(inference -> {
+                changedIdsByResult.computeIfAbsent(result, _ -> new ArrayList<>()).add(inference.getId());
+                if (inference.getCallbackUrl() != null)
+                    callbacks.add(WebhookCallback.of(inference, InferenceStatus.COMPLETE, result));
+            });
+        });
+        LocalDateTime now = LocalDateTime.now();
+        leaderIdsByResult.forEach((result, ids) ->
+                inferenceRepository.updateProcessingByIdInOrLeaderIdIn(ids, InferenceStatus.COMPLETE, result, now));
+
+        leaders.keySet().forEach(leader -> {
+            inferenceResultCache.put(leader.getImageKey(), leader.getRuntime(), resultsById.get(leader.getId()));
+            inFlightInferenceRegistry.remove(leader.getImageKey(), leader.getRuntime(), leader.getId());
+        });
+        webhookDispatcher.dispatch(callbacks);
+        return changedIdsByResult.entrySet().stream()
+                .map(entry -> InferenceStatusChangedMessage.of(entry.getValue(), InferenceStatus.COMPLETE, entry.getKey()))
+                .toList();
     }
 
     @Transactional
-    public void markInferenceAsFail(Long id) {
-        Inference inference = inferenceRepository.findById(id)
-                .filter(Inference::isProcessing)
-                .orElseThrow(() -> new InferenceException(Error.INFERENCE_NOT_FOUND));
+    public List<InferenceStatusChangedMessage> markInferencesAsFail(List<InferenceFailMessage> messages) {
+        Set<Long> ids = messages.stream().map(InferenceFailMessage::id).collect(Collectors.toSet());
+        Map<Inference, List<Inference>> leaders = findProcessingLeaders(ids);
+        if (leaders.isEmpty())
+            return List.of();
 
-        inference.fail();
+        inferenceRepository.updateProcessingByIdInOrLeaderIdIn(leaders.keySet().stream().map(Inference::getId).toList(),
+                InferenceStatus.FAIL, null, LocalDateTime.now());
+        leaders.keySet().forEach(leader -> inFlightInferenceRegistry.remove(leader.getImageKey(), leader.getRuntime(), leader.getId()));
+        List<Inference> changed = leaders.values().stream().flatMap(List::stream).toList();
+        webhookDispatcher.dispatch(changed.stream()
+                .filter(inference -> inference.getCallbackUrl() != null)
+                .map(inference -> WebhookCallback.of(inference, InferenceStatus.FAIL, null))
+                .toList());
+        return List.of(InferenceStatusChangedMessage.of(changed.stream().map(Inference::getId).toList(), InferenceStatus.FAIL, null));
     }
 
+    private Map<Inference, List<Inference>> findProcessingLeaders(Set<Long> leaderIds) {
+        List<Inference> inferences = inferenceRepository.findProcessingByIdInOrLeaderIdIn(leaderIds);
+        Map<Long, List<Inference>> changedByLeaderId = new HashMap<>();
+        inferences.forEach(inference -> {
+            Long leaderId = leaderIds.contains(inference.getId()) ? inference.getId() : inference.getLeaderId();
+            changedByLeaderId.computeIfAbsent(leaderId, _ -> new ArrayList<>()).add(inference);
+        });
+        Map<Inference, List<Inference>> leaders = new LinkedHashMap<>();
+        inferences.stream()
+                .filter(inference -> leaderIds.contains(inference.getId()))
+                .forEach(leader -> leaders.put(leader, changedByLeaderId.get(leader.getId())));
+        return leaders;
+    }
+
+    public void publishStatusChanges(List<InferenceStatusChangedMessage> changes) {
+        applyStatusChanges(changes);
+        changes.forEach(change -> kafkaPublisher.sendMessage(KafkaTopicConfig.INFERENCE_STATUS_CHANGED_TOPIC, change));
+    }
+
+    public void applyStatusChanges(List<InferenceStatusChangedMessage> messages) {
+        messages.forEach(message -> {
+            inferenceStatusCache.apply(message);
+            inferenceResultNotifier.publish(message);
+        });
+    }
 
     public InferenceResultResponse getInferenceResultById(Long id) {
-        Inference inference = inferenceRepository.findById(id)
-                .orElseThrow(() -> new InferenceException(Error.INFERENCE_NOT_FOUND));
-        if (inference.isFail())
+        return toResultResponse(getInferenceStatus(id));
+    }
+
+    public CompletableFuture<InferenceResultResponse> waitForInferenceResult(Long id, Duration wait) {
+        CompletableFuture<InferenceStatusSnapshot> finished = new CompletableFuture<>();
+        // subscribe before reading the status so a change landing in between still wakes this waiter
+        Runnable unsubscribe = inferenceResultNotifier.subscribe(id, finished::complete);
+        finished.whenComplete((_, _) -> unsubscribe.run());
+
+        InferenceStatusSnapshot current;
+        try {
+            current = getInferenceStatus(id);
+        } catch (InferenceException e) {
+            unsubscribe.run();
+            throw e;
+        }
+        if (current.isProcessing())
+            finished.completeOnTimeout(current, wait.toMillis(), TimeUnit.MILLISECONDS);
+        else
+            finished.complete(current);
+
+        CompletableFuture<InferenceResultResponse> result = finished.thenApply(this::toResultResponse);
+        result.whenComplete((_, e) -> {
+            if (e instanceof CancellationException)
+                finished.cancel(false);
+        });
+        return result;
+    }
+
+    private InferenceStatusSnapshot getInferenceStatus(Long id) {
+        return inferenceStatusCache.get(id).orElseGet(() -> {
+            Inference inference = inferenceRepository.findById(id)
+                    .orElseThrow(() -> new InferenceException(Error.INFERENCE_NOT_FOUND));
+            InferenceStatusSnapshot loaded = InferenceStatusSnapshot.from(inference);
+            inferenceStatusCache.put(loaded);
+            return loaded;
+        });
+    }
+
+    private InferenceResultResponse toResultResponse(InferenceStatusSnapshot snapshot) {
+        if (snapshot.isDeleted())
+            throw new InferenceException(Error.INFERENCE_NOT_FOUND);
+        if (snapshot.isFail())
             throw new InferenceException(Error.INFERENCE_EXECUTION_FAILED);
 
-        return InferenceResultResponse.from(inference);
+        return InferenceResultResponse.from(snapshot);
     }
 
     public void deleteInference(Long id, String userId) {
@@ -90,33 +355,38 @@ public class InferenceService {
             throw new InferenceException(Error.NOT_INFERENCE_EXECUTOR);
 
         inferenceRepository.delete(inference);
+        inferenceStatusCache.invalidate(id);
+        kafkaPublisher.sendMessage(KafkaTopicConfig.INFERENCE_STATUS_CHANGED_TOPIC, InferenceStatusChangedMessage.ofDeleted(List.of(id)));
     }
 
-    public Slice<InferenceHistoryItem> getInferenceHistory(int page, int size, Optional<String> maybeUserId, Optional<String> maybeCreatedAt, Optional<String> maybeRuntime) {
-        Pageable pageable = PageRequest.of(page, size);
-        Specification<Inference> specification = getQueryFilter(maybeUserId, maybeCreatedAt, maybeRuntime);
-        return inferenceRepository.findAll(specification, pageable)
-                .map(InferenceHistoryItem::from);
+    public InferenceHistoryResponse getInferenceHistory(Optional<String> maybeCursor, int size, Optional<String> maybeUserId, Optional<String> maybeCreatedAt, Optional<String> maybeRuntime) {
+        InferenceHistoryFilter filter = getQueryFilter(maybeCursor.map(InferenceHistoryCursor::decode), maybeUserId, maybeCreatedAt, maybeRuntime);
+        List<InferenceHistoryItem> items = inferenceRepository.findHistory(filter, size + 1);
+        LocalDateTime floor = items.size() > size ? items.getLast().createdAt() : null;
+        List<InferenceHistoryItem> archived = inferenceArchiveService.findHistory(filter, size + 1, floor);
+        if (!archived.isEmpty())
+            items = mergeHistory(items, archived, size + 1);
+        return InferenceHistoryResponse.of(items, size);
     }
 
-    private Specification<Inference> getQueryFilter(Optional<String> maybeUserId, Optional<String> maybeCreatedAt, Optional<String> maybeRuntime) {
-        return (root, _, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            maybeUserId.ifPresent(userId -> predicates.add(criteriaBuilder.equal(root.get("userId"), userId)));
-            maybeCreatedAt.ifPresent(createdAt -> {
-                LocalDateTime startAt = LocalDateTime.parse(createdAt).withMinute(0).withSecond(0).withNano(0);
-                LocalDateTime endAt = startAt.plusHours(1);
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), startAt));
-                predicates.add(criteriaBuilder.lessThan(root.get("createdAt"), endAt));
-            });
-            maybeRuntime.ifPresent(runtime -> predicates.add(criteriaBuilder.equal(root.get("runtime"), runtime)));
-
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+    private List<InferenceHistoryItem> mergeHistory(List<InferenceHistoryItem> hot, List<InferenceHistoryItem> archived, int limit) {
+        return Stream.concat(hot.stream(), archived.stream())
+                .sorted(Comparator.comparing(InferenceHistoryItem::createdAt, Comparator.reverseOrder())
+                        .thenComparing(InferenceHistoryItem::id, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
     }
 
-    public void deleteAllInferenceHistory(){
-        inferenceRepository.deleteAll();
+    private InferenceHistoryFilter getQueryFilter(Optional<InferenceHistoryCursor> maybeCursor, Optional<String> maybeUserId, Optional<String> maybeCreatedAt, Optional<String> maybeRuntime) {
+        InferenceHistoryFilter.InferenceHistoryFilterBuilder filter = InferenceHistoryFilter.builder();
+        maybeUserId.ifPresent(filter::userId);
+        maybeCreatedAt.ifPresent(createdAt -> {
+            LocalDateTime startAt = LocalDateTime.parse(createdAt).withMinute(0).withSecond(0).withNano(0);
+            filter.createdFrom(startAt).createdTo(startAt.plusHours(1));
+        });
+        maybeRuntime.ifPresent(runtime -> filter.runtime(Runtime.valueOf(runtime.toUpperCase())));
+        maybeCursor.ifPresent(cursor -> filter.cursorCreatedAt(cursor.createdAt()).cursorId(cursor.id()));
+        return filter.build();
     }
 
 }
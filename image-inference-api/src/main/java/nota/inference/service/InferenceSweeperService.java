@@ -0,0 +1,182 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.cache.InFlightInferenceRegistry;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceSuccessMessage;
+import nota.inference.routing.WorkerPickupTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class InferenceSweeperService {
+    private final InferenceRepository inferenceRepository;
+    private final InferenceService inferenceService;
+    private final InferenceOutboxService inferenceOutboxService;
+    private final InFlightInferenceRegistry inFlightInferenceRegistry;
+    private final WorkerPickupTracker workerPickupTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Runtime, Duration> timeouts;
+    private final Duration interval;
+    private final int batchSize;
+    private final int maxRetries;
+
+    @Autowired
+    public InferenceSweeperService(InferenceRepository inferenceRepository,
+                                   InferenceService inferenceService,
+                                   InferenceOutboxService inferenceOutboxService,
+                                   InFlightInferenceRegistry inFlightInferenceRegistry,
+                                   WorkerPickupTracker workerPickupTracker,
+                                   PlatformTransactionManager transactionManager,
+                                   Environment environment,
+                                   @Value("${inference.sweeper.default-timeout}") Duration defaultTimeout,
+                                   @Value("${inference.sweeper.interval}") Duration interval,
+                                   @Value("${inference.sweeper.batch-size}") int batchSize,
+                                   @Value("${inference.sweeper.max-retries}") int maxRetries) {
+        this(inferenceRepository, inferenceService, inferenceOutboxService, inFlightInferenceRegistry, workerPickupTracker,
+                transactionManager, resolveTimeouts(environment, defaultTimeout), interval, batchSize, maxRetries);
+    }
+
+    InferenceSweeperService(InferenceRepository inferenceRepository,
+                            InferenceService inferenceService,
+                            InferenceOutboxService inferenceOutboxService,
+                            InFlightInferenceRegistry inFlightInferenceRegistry,
+                            WorkerPickupTracker workerPickupTracker,
+                            PlatformTransactionManager transactionManager,
+                            Map<Runtime, Duration> timeouts,
+                            Duration interval,
+                            int batchSize,
+                            int maxRetries) {
+        this.inferenceRepository = inferenceRepository;
+        this.inferenceService = inferenceService;
+        this.inferenceOutboxService = inferenceOutboxService;
+        this.inFlightInferenceRegistry = inFlightInferenceRegistry;
+        this.workerPickupTracker = workerPickupTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeouts = timeouts;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int swept = 0;
+        for (Map.Entry<Runtime, Duration> timeout : timeouts.entrySet())
+            for (Priority priority : Priority.values())
+                swept += sweepExpiredLeaders(timeout.getKey(), priority, now.minus(timeout.getValue()));
+        swept += sweepOrphanedFollowers(now.minus(Collections.min(timeouts.values())));
+        if (swept > 0)
+            log.info("Swept {} stuck inferences", swept);
+        return swept;
+    }
+
+    int sweepExpiredLeaders(Runtime runtime, Priority priority, LocalDateTime pickedUpBy) {
+        Optional<LocalDateTime> deadline = workerPickupTracker.pickedUpBefore(runtime, priority, pickedUpBy);
+        if (deadline.isEmpty())
+            return 0;
+        List<Inference> expired = inferenceRepository.findExpiredLeaders(runtime, priority, deadline.get(), PageRequest.ofSize(batchSize));
+        if (expired.isEmpty())
+            return 0;
+
+        Map<Boolean, List<Inference>> retryable = expired.stream()
+                .collect(Collectors.partitioningBy(leader -> leader.getSweepCount() < maxRetries));
+        republish(retryable.get(true));
+        fail(retryable.get(false).stream().map(Inference::getId).toList());
+        return expired.size();
+    }
+
+    int sweepOrphanedFollowers(LocalDateTime deadline) {
+        List<Inference> orphans = inferenceRepository.findOrphanedFollowers(deadline, PageRequest.ofSize(batchSize));
+        if (orphans.isEmpty())
+            return 0;
+
+        Map<Long, List<Inference>> orphansByLeaderId = orphans.stream()
+                .collect(Collectors.groupingBy(Inference::getLeaderId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, Inference> leadersById = inferenceRepository.findAllById(orphansByLeaderId.keySet()).stream()
+                .collect(Collectors.toMap(Inference::getId, Function.identity()));
+
+        List<InferenceSuccessMessage> completed = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        List<Inference> promoted = new ArrayList<>();
+        orphansByLeaderId.forEach((leaderId, followers) -> {
+            Inference leader = leadersById.get(leaderId);
+            if (leader == null) {
+                promoted.add(promote(followers));
+            } else if (leader.isFail()) {
+                followers.forEach(follower -> failed.add(follower.getId()));
+            } else {
+                followers.forEach(follower -> completed.add(new InferenceSuccessMessage(follower.getId(), leader.getResult())));
+            }
+        });
+        if (!completed.isEmpty())
+            inferenceService.publishStatusChanges(inferenceService.markInferencesAsComplete(completed));
+        fail(failed);
+        enqueue(promoted, () -> inferenceRepository.saveAll(orphansByLeaderId.entrySet().stream()
+                .filter(entry -> !leadersById.containsKey(entry.getKey()))
+                .flatMap(entry -> entry.getValue().stream())
+                .toList()));
+        return orphans.size();
+    }
+
+    private Inference promote(List<Inference> followers) {
+        Inference first = followers.getFirst();
+        first.promoteToLeader();
+        followers.subList(1, followers.size()).forEach(follower -> follower.followLeader(first.getId()));
+        return first;
+    }
+
+    private void republish(List<Inference> leaders) {
+        enqueue(leaders, () -> inferenceRepository.markSwept(leaders.stream().map(Inference::getId).toList(), LocalDateTime.now()));
+    }
+
+    // the row change and its outbox entry commit together, so a request is never dispatched twice or lost
+    private void enqueue(List<Inference> leaders, Runnable update) {
+        if (leaders.isEmpty())
+            return;
+        transactionTemplate.executeWithoutResult(_ -> {
+            update.run();
+            inferenceOutboxService.enqueue(leaders);
+        });
+        leaders.forEach(leader -> inFlightInferenceRegistry.register(leader.getImageKey(), leader.getRuntime(), leader.getId()));
+    }
+
+    private void fail(List<Long> ids) {
+        if (ids.isEmpty())
+            return;
+        inferenceService.publishStatusChanges(inferenceService.markInferencesAsFail(ids.stream().map(InferenceFailMessage::new).toList()));
+    }
+
+
+    private static Map<Runtime, Duration> resolveTimeouts(Environment environment, Duration defaultTimeout) {
+        Map<Runtime, Duration> configured = Binder.get(environment)
+                .bind("inference.sweeper.timeouts", Bindable.mapOf(Runtime.class, Duration.class))
+                .orElse(Map.of());
+        Map<Runtime, Duration> timeouts = new EnumMap<>(Runtime.class);
+        for (Runtime runtime : Runtime.values())
+            timeouts.put(runtime, configured.getOrDefault(runtime, defaultTimeout));
+        return timeouts;
+    }
+}
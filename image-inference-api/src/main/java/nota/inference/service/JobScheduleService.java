@@ -0,0 +1,134 @@
+package nota.inference.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.domain.model.JobSchedule;
+import nota.inference.domain.repository.JobScheduleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class JobScheduleService {
+    private final JobScheduleRepository jobScheduleRepository;
+    private final TaskScheduler taskScheduler;
+    private final String instanceId;
+    private final Duration lockAtMost;
+    private final Duration lockAtLeast;
+
+    public JobScheduleService(JobScheduleRepository jobScheduleRepository,
+                              TaskScheduler taskScheduler,
+                              @Value("${inference.scheduler.instance-id}") String instanceId,
+                              @Value("${inference.scheduler.lock-at-most}") Duration lockAtMost,
+                              @Value("${inference.scheduler.lock-at-least}") Duration lockAtLeast) {
+        this.jobScheduleRepository = jobScheduleRepository;
+        this.taskScheduler = taskScheduler;
+        this.instanceId = instanceId;
+        this.lockAtMost = lockAtMost;
+        this.lockAtLeast = lockAtLeast;
+    }
+
+    public String getCronExpression(String name, String defaultCronExpression) {
+        return jobScheduleRepository.findById(name)
+                .map(JobSchedule::getCronExpression)
+                .orElseGet(() -> register(name, defaultCronExpression));
+    }
+
+    public void updateCronExpression(String name, String cronExpression) {
+        getCronExpression(name, cronExpression);
+        jobScheduleRepository.updateCronExpression(name, cronExpression, LocalDateTime.now());
+    }
+
+    // the lease is renewed while the job runs and expires after lockAtMost only if the owner dies mid-run
+    public boolean runExclusively(String name, Runnable job) {
+        return runExclusively(name, lockAtLeast, job);
+    }
+
+    public boolean runExclusively(String name, Duration lockAtLeast, Runnable job) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        if (jobScheduleRepository.acquireLock(name, instanceId, startedAt, startedAt.plus(lockAtMost)) == 0) {
+            log.debug("Job {} is held by another instance, skipping", name);
+            return false;
+        }
+
+        Lease lease = new Lease(name, Thread.currentThread());
+        Duration renewInterval = lockAtMost.dividedBy(3);
+        ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(lease::renew, Instant.now().plus(renewInterval), renewInterval);
+        boolean lost;
+        try {
+            job.run();
+        } finally {
+            renewal.cancel(false);
+            lost = lease.finish();
+            if (!lost) {
+                LocalDateTime finishedAt = LocalDateTime.now();
+                LocalDateTime minimum = startedAt.plus(lockAtLeast);
+                jobScheduleRepository.releaseLock(name, instanceId, finishedAt.isAfter(minimum) ? finishedAt : minimum);
+            }
+        }
+        if (lost)
+            throw new IllegalStateException("Lost the lease on job " + name + " while it was running");
+        return true;
+    }
+
+    private String register(String name, String cronExpression) {
+        try {
+            jobScheduleRepository.saveAndFlush(JobSchedule.of(name, cronExpression));
+            return cronExpression;
+        } catch (DataIntegrityViolationException e) {
+            return jobScheduleRepository.findById(name)
+                    .map(JobSchedule::getCronExpression)
+                    .orElse(cronExpression);
+        }
+    }
+
+    private final class Lease {
+        private final String name;
+        private final Thread runner;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean running = true;
+        private boolean lost;
+
+        Lease(String name, Thread runner) {
+            this.name = name;
+            this.runner = runner;
+        }
+
+        void renew() {
+            lock.lock();
+            try {
+                if (!running || lost)
+                    return;
+                LocalDateTime now = LocalDateTime.now();
+                if (jobScheduleRepository.extendLock(name, instanceId, now, now.plus(lockAtMost)) > 0)
+                    return;
+                lost = true;
+                log.error("Lost the lease on job {}, interrupting it", name);
+                runner.interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Failed to renew the lease on job {}", name, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean finish() {
+            lock.lock();
+            try {
+                running = false;
+                if (lost)
+                    Thread.interrupted();
+                return lost;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package nota.inference.service;
+
+import java.util.List;
+
+public record OutboxRelayResult(int delivered, List<Long> undeliverable) {
+    public static OutboxRelayResult empty() {
+        return new OutboxRelayResult(0, List.of());
+    }
+}
@@ -2,34 +2,130 @@ package nota.inference.service;
 
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.domain.model.JobSchedule;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.concurrent.ScheduledFuture;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SchedulerService {
+    static final String INFERENCE_HISTORY_DELETE_JOB = "inference-history-delete";
+    static final String PARTITION_MAINTENANCE_JOB = "inference-partition-maintenance";
+    static final String ARCHIVE_JOB = "inference-archive";
+    static final String SWEEP_JOB = "inference-sweep";
+    private static final String DEFAULT_INFERENCE_HISTORY_DELETE_CRON = "0 0 12 * * *";
+    private static final String PARTITION_MAINTENANCE_CRON = "0 0 1 * * *";
+    private static final String ARCHIVE_CRON = "0 0 2 * * *";
+    private static final Duration SCHEDULE_SYNC_INTERVAL = Duration.ofSeconds(30);
     private final TaskScheduler taskScheduler;
-    private final InferenceService inferenceService;
+    private final InferenceHistoryPurgeService inferenceHistoryPurgeService;
+    private final InferencePartitionService inferencePartitionService;
+    private final JobScheduleService jobScheduleService;
+    private final InferenceArchiveService inferenceArchiveService;
+    private final InferenceSweeperService inferenceSweeperService;
 
     private ScheduledFuture<?> futureTask;
+    private String cronExpression;
 
     @PostConstruct
     private void initializeDefaultSchedule() {
-        updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        applyInferenceHistoryDeleteSchedule(jobScheduleService.getCronExpression(INFERENCE_HISTORY_DELETE_JOB, DEFAULT_INFERENCE_HISTORY_DELETE_CRON));
+        taskScheduler.scheduleWithFixedDelay(this::syncInferenceHistoryDeleteSchedule, SCHEDULE_SYNC_INTERVAL);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void initializePartitionMaintenance() {
+        if (!inferencePartitionService.isEnabled())
+            return;
+
+        jobScheduleService.getCronExpression(PARTITION_MAINTENANCE_JOB, PARTITION_MAINTENANCE_CRON);
+        maintainInferencePartitions();
+        taskScheduler.schedule(this::maintainInferencePartitions, new CronTrigger(PARTITION_MAINTENANCE_CRON));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void initializeArchive() {
+        if (!inferenceArchiveService.isEnabled())
+            return;
+
+        jobScheduleService.getCronExpression(ARCHIVE_JOB, ARCHIVE_CRON);
+        taskScheduler.schedule(this::archiveFinishedInferences, new CronTrigger(ARCHIVE_CRON));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void initializeSweeper() {
+        jobScheduleService.getCronExpression(SWEEP_JOB, JobSchedule.FIXED_DELAY);
+        taskScheduler.scheduleWithFixedDelay(this::sweepStuckInferences, inferenceSweeperService.getInterval());
     }
 
     public void updateInferenceHistoryDeleteSchedule(String cronExpression) {
+        jobScheduleService.updateCronExpression(INFERENCE_HISTORY_DELETE_JOB, cronExpression);
+        applyInferenceHistoryDeleteSchedule(cronExpression);
+    }
+
+    void syncInferenceHistoryDeleteSchedule() {
+        try {
+            applyInferenceHistoryDeleteSchedule(jobScheduleService.getCronExpression(INFERENCE_HISTORY_DELETE_JOB, DEFAULT_INFERENCE_HISTORY_DELETE_CRON));
+        } catch (RuntimeException e) {
+            log.error("Failed to sync inference history delete schedule", e);
+        }
+    }
+
+    private synchronized void applyInferenceHistoryDeleteSchedule(String cronExpression) {
+        if (cronExpression.equals(this.cronExpression) && futureTask != null && !futureTask.isCancelled())
+            return;
+
         if (futureTask != null && !futureTask.isCancelled()) {
             futureTask.cancel(false);
         }
 
         futureTask = taskScheduler.schedule(this::deleteInferenceHistory, new CronTrigger(cronExpression));
+        this.cronExpression = cronExpression;
     }
 
     private void deleteInferenceHistory() {
-        inferenceService.deleteAllInferenceHistory();
+        try {
+            jobScheduleService.runExclusively(INFERENCE_HISTORY_DELETE_JOB, () -> {
+                if (inferencePartitionService.isEnabled()) {
+                    inferencePartitionService.dropExpiredPartitions();
+                    return;
+                }
+                inferenceHistoryPurgeService.purgeExpiredHistory();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to delete expired inference history", e);
+        }
+    }
+
+    private void maintainInferencePartitions() {
+        try {
+            jobScheduleService.runExclusively(PARTITION_MAINTENANCE_JOB, inferencePartitionService::createUpcomingPartitions);
+        } catch (RuntimeException e) {
+            log.error("Failed to create upcoming inference partitions", e);
+        }
+    }
+
+    private void archiveFinishedInferences() {
+        try {
+            jobScheduleService.runExclusively(ARCHIVE_JOB, inferenceArchiveService::archiveFinishedInferences);
+        } catch (RuntimeException e) {
+            log.error("Failed to archive finished inferences", e);
+        }
+    }
+
+    private void sweepStuckInferences() {
+        try {
+            jobScheduleService.runExclusively(SWEEP_JOB, Duration.ZERO, inferenceSweeperService::sweep);
+        } catch (RuntimeException e) {
+            log.error("Failed to sweep stuck inferences", e);
+        }
     }
 }
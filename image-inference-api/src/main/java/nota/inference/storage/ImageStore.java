@@ -0,0 +1,19 @@
+package nota.inference.storage;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Collection;
+
+public interface ImageStore {
+
+    /**
+     * Stores the image under its content-addressed key. Saving a key that already exists is a no-op.
+     */
+    void save(String key, MultipartFile file) throws IOException;
+
+    /**
+     * Removes the images stored under the keys. Keys that are not stored are ignored.
+     */
+    void delete(Collection<String> keys) throws IOException;
+}
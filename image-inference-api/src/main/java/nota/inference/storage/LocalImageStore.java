@@ -0,0 +1,56 @@
+package nota.inference.storage;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+public class LocalImageStore implements ImageStore {
+    private final Path root;
+
+    public LocalImageStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void save(String key, MultipartFile file) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target))
+            return;
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+        try {
+            try (InputStream inputStream = file.getInputStream();
+                 ReadableByteChannel source = Channels.newChannel(inputStream);
+                 FileChannel destination = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = destination.transferFrom(source, position, Long.MAX_VALUE - position)) > 0) {
+                    position += transferred;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> keys) throws IOException {
+        for (String key : keys)
+            Files.deleteIfExists(resolve(key));
+    }
+
+    Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
@@ -0,0 +1,63 @@
+package nota.inference.storage;
+
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+
+public class S3ImageStore implements ImageStore {
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private final S3Client s3Client;
+    private final String bucket;
+
+    public S3ImageStore(S3Client s3Client, String bucket) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void save(String key, MultipartFile file) throws IOException {
+        if (exists(key))
+            return;
+
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(file.getContentType())
+                .contentLength(file.getSize())
+                .build();
+        try (InputStream inputStream = file.getInputStream()) {
+            s3Client.putObject(request, RequestBody.fromInputStream(inputStream, file.getSize()));
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        List<ObjectIdentifier> objects = keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList();
+        for (int from = 0; from < objects.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> chunk = objects.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, objects.size()));
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucket)
+                    .delete(Delete.builder().objects(chunk).quiet(true).build())
+                    .build());
+            if (!response.errors().isEmpty())
+                throw S3Exception.builder()
+                        .message("Failed to delete " + response.errors().size() + " images, first: " + response.errors().getFirst().message())
+                        .build();
+        }
+    }
+
+    boolean exists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+}
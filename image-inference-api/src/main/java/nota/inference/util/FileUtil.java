@@ -2,9 +2,15 @@ package nota.inference.util;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Optional;
 
 public class FileUtil {
+    private static final int DIGEST_BUFFER_SIZE = 8192;
 
     public static Optional<String> getFileExtension(MultipartFile multipartFile) {
         String fileName = multipartFile.getOriginalFilename();
@@ -16,6 +22,26 @@ public class FileUtil {
         return Optional.of(fileName.substring(dotIndex + 1));
     }
 
+    public static String getContentHash(MultipartFile multipartFile) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream inputStream = multipartFile.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private FileUtil() {
     }
 }
@@ -0,0 +1,32 @@
+package nota.inference.util.validator;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+public class DurationValueValidator implements ConstraintValidator<DurationValue, String> {
+    private Duration max;
+    private boolean nullable;
+
+    @Override
+    public void initialize(DurationValue constraintAnnotation) {
+        max = DurationStyle.detectAndParse(constraintAnnotation.max());
+        nullable = constraintAnnotation.nullable();
+    }
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        if (value == null && nullable)
+            return true;
+        else if (value == null)
+            return false;
+        try {
+            Duration duration = DurationStyle.detectAndParse(value);
+            return duration.isPositive() && duration.compareTo(max) <= 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -19,6 +19,8 @@ public @interface EnumValue {
 
     boolean nullable() default false;
 
+    String[] additionalValues() default {};
+
     Class<?>[] groups() default {};
 
     Class<? extends Payload>[] payload() default {};
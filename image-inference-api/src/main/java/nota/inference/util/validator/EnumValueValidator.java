@@ -9,11 +9,13 @@ import java.util.Locale;
 public class EnumValueValidator implements ConstraintValidator<EnumValue, String> {
     private Enum<?>[] enumValues;
     private boolean nullable;
+    private String[] additionalValues;
 
     @Override
     public void initialize(EnumValue constraintAnnotation) {
         enumValues = constraintAnnotation.enumClass().getEnumConstants();
         nullable = constraintAnnotation.nullable();
+        additionalValues = constraintAnnotation.additionalValues();
     }
 
     @Override
@@ -23,6 +25,9 @@ public class EnumValueValidator implements ConstraintValidator<EnumValue, String
         else if(value == null)
             return false;
 
+        if (Arrays.stream(additionalValues).anyMatch(value::equalsIgnoreCase))
+            return true;
+
         String valueToUpperCase = value.toUpperCase(Locale.ROOT);
         return Arrays.stream(enumValues)
                 .anyMatch(enumValue -> enumValue.toString().equals(valueToUpperCase));
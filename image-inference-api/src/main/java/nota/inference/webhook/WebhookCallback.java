@@ -0,0 +1,18 @@
+package nota.inference.webhook;
+
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.dto.message.InferenceCallbackMessage;
+
+public record WebhookCallback(
+        String url,
+        InferenceCallbackMessage message
+) {
+    public static WebhookCallback of(Inference inference, InferenceStatus status, String result) {
+        return new WebhookCallback(inference.getCallbackUrl(), InferenceCallbackMessage.of(inference.getId(), status, result));
+    }
+
+    public static WebhookCallback from(Inference inference) {
+        return of(inference, inference.getStatus(), inference.getResult());
+    }
+}
@@ -0,0 +1,232 @@
+package nota.inference.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nota.inference.dto.message.InferenceCallbackMessage;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class WebhookDispatcher {
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final int maxConcurrencyPerHost;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final Duration requestTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final WebhookTargetPolicy targetPolicy;
+    private final Cache<String, HostQueue> hosts;
+
+    @Autowired
+    public WebhookDispatcher(ObjectMapper objectMapper,
+                             TaskScheduler taskScheduler,
+                             @Value("${inference.webhook.connect-timeout}") Duration connectTimeout,
+                             @Value("${inference.webhook.request-timeout}") Duration requestTimeout,
+                             @Value("${inference.webhook.max-concurrency-per-host}") int maxConcurrencyPerHost,
+                             @Value("${inference.webhook.max-batch-size}") int maxBatchSize,
+                             @Value("${inference.webhook.max-attempts}") int maxAttempts,
+                             @Value("${inference.webhook.initial-backoff}") Duration initialBackoff,
+                             @Value("${inference.webhook.max-backoff}") Duration maxBackoff,
+                             @Value("${inference.webhook.allowed-hosts}") List<String> allowedHosts) {
+        this(objectMapper, taskScheduler, connectTimeout, requestTimeout, maxConcurrencyPerHost, maxBatchSize, maxAttempts,
+                initialBackoff, maxBackoff, new WebhookTargetPolicy(allowedHosts));
+    }
+
+    WebhookDispatcher(ObjectMapper objectMapper,
+                      TaskScheduler taskScheduler,
+                      Duration connectTimeout,
+                      Duration requestTimeout,
+                      int maxConcurrencyPerHost,
+                      int maxBatchSize,
+                      int maxAttempts,
+                      Duration initialBackoff,
+                      Duration maxBackoff,
+                      WebhookTargetPolicy targetPolicy) {
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setDnsResolver(targetPolicy)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(connectTimeout))
+                                .build())
+                        .setMaxConnPerRoute(maxConcurrencyPerHost)
+                        .setMaxConnTotal(Integer.MAX_VALUE)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(requestTimeout))
+                        .build())
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .build();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.requestTimeout = requestTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.targetPolicy = targetPolicy;
+        this.hosts = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        httpClient.close(CloseMode.IMMEDIATE);
+    }
+
+    public void dispatch(List<WebhookCallback> callbacks) {
+        if (callbacks.isEmpty())
+            return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(callbacks);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(callbacks);
+            }
+        });
+    }
+
+    private void deliver(List<WebhookCallback> callbacks) {
+        Map<String, List<InferenceCallbackMessage>> messagesByUrl = callbacks.stream()
+                .collect(Collectors.groupingBy(WebhookCallback::url, LinkedHashMap::new,
+                        Collectors.mapping(WebhookCallback::message, Collectors.toList())));
+        messagesByUrl.forEach((url, messages) -> {
+            URI uri = URI.create(url);
+            if (!targetPolicy.isAllowed(uri)) {
+                log.warn("Refusing {} callbacks to {}, the host is not public", messages.size(), uri.getHost());
+                return;
+            }
+            HostQueue host = hosts.get(uri.getAuthority(), _ -> new HostQueue(new Semaphore(maxConcurrencyPerHost), new ConcurrentLinkedQueue<>()));
+            for (int from = 0; from < messages.size(); from += maxBatchSize)
+                submit(host, new Delivery(uri, List.copyOf(messages.subList(from, Math.min(from + maxBatchSize, messages.size()))), 1));
+        });
+    }
+
+    private void submit(HostQueue host, Delivery delivery) {
+        host.waiting().add(delivery);
+        drain(host);
+    }
+
+    private void drain(HostQueue host) {
+        while (!host.waiting().isEmpty() && host.permits().tryAcquire()) {
+            Delivery delivery = host.waiting().poll();
+            if (delivery == null) {
+                host.permits().release();
+                continue;
+            }
+            send(host, delivery);
+        }
+    }
+
+    private void send(HostQueue host, Delivery delivery) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(delivery.messages());
+        } catch (JsonProcessingException e) {
+            host.permits().release();
+            log.error("Failed to serialize webhook callbacks for {}", delivery.uri(), e);
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> post(delivery.uri(), body), executor)
+                .whenComplete((statusCode, e) -> {
+                    host.permits().release();
+                    if (e != null)
+                        retry(host, delivery, e.getCause() != null ? e.getCause().toString() : e.toString());
+                    else if (isRetryable(statusCode))
+                        retry(host, delivery, "status " + statusCode);
+                    else if (!isSuccessful(statusCode))
+                        log.warn("Webhook {} rejected {} callbacks with status {}", delivery.uri(), delivery.messages().size(), statusCode);
+                    drain(host);
+                });
+    }
+
+    private int post(URI uri, byte[] body) {
+        HttpPost request = new HttpPost(uri);
+        request.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        try {
+            return httpClient.execute(request, HttpResponse::getCode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void retry(HostQueue host, Delivery delivery, String reason) {
+        if (delivery.attempt() >= maxAttempts) {
+            log.warn("Giving up on webhook {} after {} attempts: {}", delivery.uri(), delivery.attempt(), reason);
+            return;
+        }
+        Duration backoff = backoff(delivery.attempt());
+        log.debug("Retrying webhook {} in {}: {}", delivery.uri(), backoff, reason);
+        taskScheduler.schedule(() -> submit(host, delivery.nextAttempt()), Instant.now().plus(backoff));
+    }
+
+    Duration backoff(int attempt) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private boolean isSuccessful(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    private boolean isRetryable(int statusCode) {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+
+    private record HostQueue(Semaphore permits, Queue<Delivery> waiting) {
+    }
+
+    private record Delivery(URI uri, List<InferenceCallbackMessage> messages, int attempt) {
+        Delivery nextAttempt() {
+            return new Delivery(uri, messages, attempt + 1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package nota.inference.webhook;
+
+import org.apache.hc.client5.http.DnsResolver;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+
+// the http client connects through resolve, so the addresses checked are the ones it connects to
+class WebhookTargetPolicy implements DnsResolver {
+    private final List<String> allowedHosts;
+
+    WebhookTargetPolicy(List<String> allowedHosts) {
+        this.allowedHosts = allowedHosts.stream().map(host -> host.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    boolean isAllowed(URI uri) {
+        String host = uri.getHost();
+        if (host == null)
+            return false;
+        if (isOnAllowList(host.toLowerCase(Locale.ROOT)))
+            return true;
+        try {
+            resolve(host);
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        InetAddress[] addresses = lookup(host);
+        if (isOnAllowList(host.toLowerCase(Locale.ROOT)))
+            return addresses;
+        if (addresses.length == 0)
+            throw new UnknownHostException(host);
+        for (InetAddress address : addresses) {
+            if (!isPublic(address))
+                throw new UnknownHostException(host + " resolves to the non-public address " + address.getHostAddress());
+        }
+        return addresses;
+    }
+
+    @Override
+    public String resolveCanonicalHostname(String host) throws UnknownHostException {
+        return resolve(host)[0].getCanonicalHostName();
+    }
+
+    InetAddress[] lookup(String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+    private boolean isOnAllowList(String host) {
+        for (String allowed : allowedHosts) {
+            if (allowed.startsWith(".") ? host.endsWith(allowed) : host.equals(allowed))
+                return true;
+        }
+        return false;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress())
+            return false;
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address)
+            return isPublicIpv4(bytes[0] & 0xff, bytes[1] & 0xff);
+        // fc00::/7 unique local, which also holds the ipv6 metadata endpoints
+        if ((bytes[0] & 0xfe) == 0xfc)
+            return false;
+        // 64:ff9b::/96 translates to the ipv4 address in its last four bytes
+        if (bytes[0] == 0 && bytes[1] == 0x64 && (bytes[2] & 0xff) == 0xff && (bytes[3] & 0xff) == 0x9b) {
+            for (int i = 4; i < 12; i++) {
+                if (bytes[i] != 0)
+                    return true;
+            }
+            try {
+                return isPublic(InetAddress.getByAddress(new byte[]{bytes[12], bytes[13], bytes[14], bytes[15]}));
+            } catch (UnknownHostException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPublicIpv4(int first, int second) {
+        if (first == 0 || first >= 240)
+            return false;
+        // shared carrier-grade nat space
+        if (first == 100 && (second & 0xc0) == 64)
+            return false;
+        // benchmarking range
+        return first != 198 || (second & 0xfe) != 18;
+    }
+}
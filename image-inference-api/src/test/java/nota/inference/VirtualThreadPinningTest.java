@@ -0,0 +1,76 @@
+package nota.inference;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import nota.inference.cache.InFlightInferenceRegistry;
+import nota.inference.cache.InferenceResultCache;
+import nota.inference.config.InferenceRequestMessageSerializer;
+import nota.inference.domain.model.Runtime;
+import nota.inference.dto.message.InferenceRequestMessage;
+import nota.inference.storage.LocalImageStore;
+import nota.inference.util.FileUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningTest {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @TempDir
+    private Path root;
+
+    @Test
+    void uploadPath_doesNotPinCarrierThreads() throws Exception {
+        //given
+        LocalImageStore imageStore = new LocalImageStore(root);
+        InferenceResultCache resultCache = new InferenceResultCache(1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        InFlightInferenceRegistry inFlightRegistry = new InFlightInferenceRegistry(1000, Duration.ofMinutes(1));
+        InferenceRequestMessageSerializer serializer = new InferenceRequestMessageSerializer();
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        //when
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent(PINNED_EVENT, pinnedEvents::add);
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    long id = i;
+                    futures.add(executor.submit(() -> {
+                        MockMultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                                MediaType.IMAGE_JPEG_VALUE, ("image-" + id % 50).getBytes());
+                        String imageKey = FileUtil.getContentHash(file);
+                        resultCache.get(imageKey, Runtime.ONNX);
+                        inFlightRegistry.findLeader(imageKey, Runtime.ONNX);
+                        imageStore.save(imageKey, file);
+                        inFlightRegistry.register(imageKey, Runtime.ONNX, id);
+                        serializer.serialize("onnx_inference_request", InferenceRequestMessage.of(id, Runtime.ONNX, imageKey));
+                        Thread.sleep(1);
+                        resultCache.put(imageKey, Runtime.ONNX, "apple");
+                        inFlightRegistry.remove(imageKey, Runtime.ONNX, id);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            }
+            recording.stop();
+        }
+        //then
+        assertTrue(pinnedEvents.isEmpty(), () -> "carrier pinned: " + pinnedEvents.getFirst().getStackTrace());
+    }
+}
@@ -0,0 +1,78 @@
+package nota.inference.admission;
+
+import nota.inference.domain.model.Runtime;
+import nota.inference.routing.RuntimeLoad;
+import nota.inference.routing.RuntimeLoadMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyLimiterTest {
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private RuntimeLoadMonitor runtimeLoadMonitor;
+
+    private AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    @BeforeEach
+    void setUp() {
+        adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(taskScheduler, runtimeLoadMonitor, 2, 10, 100, 0.5, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void tryAcquire_rejectsOnceLimitIsInFlight() {
+        //given
+        for (int i = 0; i < 10; i++)
+            assertTrue(adaptiveConcurrencyLimiter.tryAcquire());
+        //when
+        boolean rejected = adaptiveConcurrencyLimiter.tryAcquire();
+        adaptiveConcurrencyLimiter.release();
+        boolean admitted = adaptiveConcurrencyLimiter.tryAcquire();
+        //then
+        assertFalse(rejected);
+        assertTrue(admitted);
+    }
+
+    @Test
+    void adjust_halvesLimitDownToMinimum_WhileLagIsAboveTarget() {
+        //given
+        givenLag(150, 50);
+        //when
+        adaptiveConcurrencyLimiter.adjust();
+        int halved = adaptiveConcurrencyLimiter.getLimit();
+        adaptiveConcurrencyLimiter.adjust();
+        adaptiveConcurrencyLimiter.adjust();
+        //then
+        assertEquals(5, halved);
+        assertEquals(2, adaptiveConcurrencyLimiter.getLimit());
+    }
+
+    @Test
+    void adjust_raisesLimitByOne_WhenLagIsBackUnderTarget() {
+        //given
+        givenLag(150, 50);
+        adaptiveConcurrencyLimiter.adjust();
+        givenLag(10, 0);
+        //when
+        adaptiveConcurrencyLimiter.adjust();
+        //then
+        assertEquals(6, adaptiveConcurrencyLimiter.getLimit());
+    }
+
+    private void givenLag(long onnx, long tflite) {
+        given(runtimeLoadMonitor.getLoads()).willReturn(Map.of(
+                Runtime.ONNX, new RuntimeLoad(Runtime.ONNX, onnx, Duration.ofSeconds(1)),
+                Runtime.TFLITE, new RuntimeLoad(Runtime.TFLITE, tflite, Duration.ofSeconds(1))));
+    }
+}
@@ -0,0 +1,84 @@
+package nota.inference.admission;
+
+import nota.inference.routing.RuntimeLoadMonitor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew benchmark; admit and release run on every upload, so the pair has to stay well under a microsecond
+@Tag("benchmark")
+class AdmissionControllerBenchmarkTest {
+    private static final int USERS = 10_000;
+    private static final int WARMUP_ITERATIONS = 2_000_000;
+    private static final int ITERATIONS = 5_000_000;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    @Test
+    void admit_costsUnderAMicrosecond_singleThreaded() {
+        //given
+        AdmissionController admissionController = newAdmissionController();
+        String[] userIds = userIds();
+        //when
+        run(admissionController, userIds, WARMUP_ITERATIONS);
+        long nanosPerAdmit = run(admissionController, userIds, ITERATIONS);
+        //then
+        System.out.printf("admit + release: %d ns/op on 1 thread over %d users%n", nanosPerAdmit, USERS);
+        assertTrue(nanosPerAdmit < 1_000);
+    }
+
+    @Test
+    void admit_costsUnderAMicrosecond_contended() throws Exception {
+        //given
+        AdmissionController admissionController = newAdmissionController();
+        String[] userIds = userIds();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        //when
+        List<CompletableFuture<Long>> runs = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++)
+            runs.add(CompletableFuture.supplyAsync(() -> {
+                run(admissionController, userIds, WARMUP_ITERATIONS);
+                return run(admissionController, userIds, ITERATIONS);
+            }, executor));
+        long worstNanosPerAdmit = 0;
+        for (CompletableFuture<Long> run : runs)
+            worstNanosPerAdmit = Math.max(worstNanosPerAdmit, run.get());
+        executor.shutdown();
+        //then
+        System.out.printf("admit + release: %d ns/op worst thread of %d over %d users%n", worstNanosPerAdmit, THREADS, USERS);
+        assertTrue(worstNanosPerAdmit < 1_000);
+    }
+
+    // the rate is high enough that every call is admitted, which is the path every accepted upload takes
+    private AdmissionController newAdmissionController() {
+        UserRateLimiter userRateLimiter = new UserRateLimiter(1_000_000_000, 1_000, 100_000, Duration.ofMinutes(10));
+        AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = new AdaptiveConcurrencyLimiter(Mockito.mock(TaskScheduler.class),
+                Mockito.mock(RuntimeLoadMonitor.class), 8, Integer.MAX_VALUE, 1_000, 0.9, Duration.ofSeconds(5));
+        return new AdmissionController(userRateLimiter, adaptiveConcurrencyLimiter, Duration.ofSeconds(1));
+    }
+
+    private String[] userIds() {
+        String[] userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++)
+            userIds[i] = "user-" + i;
+        return userIds;
+    }
+
+    private long run(AdmissionController admissionController, String[] userIds, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            admissionController.admit(userIds[i % USERS], 1);
+            admissionController.release();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
@@ -0,0 +1,68 @@
+package nota.inference.admission;
+
+import nota.inference.exception.Error;
+import nota.inference.exception.RateLimitException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControllerTest {
+    @Mock
+    private UserRateLimiter userRateLimiter;
+    @Mock
+    private AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void setUp() {
+        admissionController = new AdmissionController(userRateLimiter, adaptiveConcurrencyLimiter, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void admit_fail_TOO_MANY_REQUESTS_AndReleasesSlot_WhenUserIsOverRate() {
+        //given
+        given(adaptiveConcurrencyLimiter.tryAcquire()).willReturn(true);
+        given(userRateLimiter.tryAcquire("user", 3)).willReturn(Duration.ofMillis(1500).toNanos());
+        //when
+        RateLimitException e = assertThrows(RateLimitException.class, () -> admissionController.admit("user", 3));
+        //then
+        assertEquals(Error.TOO_MANY_REQUESTS, e.getError());
+        assertEquals(Duration.ofMillis(1500), e.getRetryAfter());
+        verify(adaptiveConcurrencyLimiter, times(1)).release();
+    }
+
+    @Test
+    void admit_fail_TOO_MANY_CONCURRENT_REQUESTS_WithoutSpendingTokens_WhenLimitIsReached() {
+        //given
+        given(adaptiveConcurrencyLimiter.tryAcquire()).willReturn(false);
+        //when
+        RateLimitException e = assertThrows(RateLimitException.class, () -> admissionController.admit("user", 1));
+        //then
+        assertEquals(Error.TOO_MANY_CONCURRENT_REQUESTS, e.getError());
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+        verify(userRateLimiter, never()).tryAcquire(anyString(), anyInt());
+    }
+
+    @Test
+    void admit_keepsSlot_WhenUserHasTokens() {
+        //given
+        given(adaptiveConcurrencyLimiter.tryAcquire()).willReturn(true);
+        given(userRateLimiter.tryAcquire("user", 1)).willReturn(0L);
+        //when
+        admissionController.admit("user", 1);
+        //then
+        verify(adaptiveConcurrencyLimiter, never()).release();
+    }
+}
@@ -0,0 +1,89 @@
+package nota.inference.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_takesBurstThenReportsWaitForNextToken() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        //when
+        long burst = 0;
+        for (int i = 0; i < 5; i++)
+            burst += bucket.tryAcquire(1, 0);
+        long wait = bucket.tryAcquire(1, 0);
+        //then
+        assertEquals(0, burst);
+        assertEquals(SECOND / 10, wait);
+    }
+
+    @Test
+    void tryAcquire_refillsAtRate() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryAcquire(5, 0);
+        //when
+        long afterTwoTokens = bucket.tryAcquire(2, SECOND / 5);
+        long thirdToken = bucket.tryAcquire(1, SECOND / 5);
+        //then
+        assertEquals(0, afterTwoTokens);
+        assertEquals(SECOND / 10, thirdToken);
+    }
+
+    @Test
+    void tryAcquire_doesNotBankTokensBeyondCapacity() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        //when
+        long full = bucket.tryAcquire(5, 60 * SECOND);
+        long overCapacity = bucket.tryAcquire(1, 60 * SECOND);
+        //then
+        assertEquals(0, full);
+        assertTrue(overCapacity > 0);
+    }
+
+    @Test
+    void tryAcquire_chargesRequestLargerThanCapacityAsDebt() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        //when
+        long large = bucket.tryAcquire(20, 0);
+        long next = bucket.tryAcquire(1, 0);
+        long afterDebt = bucket.tryAcquire(1, 2 * SECOND);
+        //then
+        assertEquals(0, large);
+        assertEquals(16 * SECOND / 10, next);
+        assertEquals(0, afterDebt);
+    }
+
+    @Test
+    void tryAcquire_waitsForFullBucket_BeforeRequestLargerThanCapacity() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryAcquire(1, 0);
+        //when
+        long large = bucket.tryAcquire(20, 0);
+        long whenFull = bucket.tryAcquire(20, SECOND / 10);
+        //then
+        assertEquals(SECOND / 10, large);
+        assertEquals(0, whenFull);
+    }
+
+    @Test
+    void charge_leavesShortfallAsDebt() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryAcquire(5, 0);
+        //when
+        bucket.charge(3, 0);
+        long next = bucket.tryAcquire(1, 0);
+        //then
+        assertEquals(4 * SECOND / 10, next);
+    }
+}
@@ -0,0 +1,74 @@
+package nota.inference.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceArchiveWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_readsBackEveryColumnNewestFirst() throws IOException {
+        //given
+        ArchivedInference older = row(1L, LocalDateTime.parse("2024-10-02T14:23:00.123456"), "사과", null);
+        ArchivedInference newer = row(2L, LocalDateTime.parse("2024-10-02T14:23:01"), null, "batch");
+        Path file = directory.resolve("segment.cols");
+        //when
+        InferenceArchiveWriter.write(file, List.of(older, newer));
+        //then
+        List<ArchivedInference> rows = new ArrayList<>();
+        try (InferenceArchiveReader reader = InferenceArchiveReader.open(file)) {
+            reader.forEachRemaining(rows::add);
+        }
+        assertEquals(List.of(newer, older), rows);
+    }
+
+    @Test
+    void write_compressesRepetitiveColumns() throws IOException {
+        //given
+        List<ArchivedInference> rows = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.parse("2024-10-02T00:00:00");
+        for (long id = 1; id <= 10_000; id++)
+            rows.add(row(id, createdAt.plusSeconds(id), "apple", null));
+        Path file = directory.resolve("segment.cols");
+        //when
+        InferenceArchiveWriter.write(file, rows);
+        //then
+        assertTrue(Files.size(file) < 10_000 * 8, "segment is " + Files.size(file) + " bytes");
+        try (InferenceArchiveReader reader = InferenceArchiveReader.open(file)) {
+            assertEquals(10_000L, reader.next().id());
+        }
+    }
+
+    @Test
+    void open_fail_WhenFileIsNotASegment() throws IOException {
+        //given
+        Path file = Files.write(directory.resolve("garbage.cols"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        //when
+        //then
+        assertThrows(IOException.class, () -> InferenceArchiveReader.open(file));
+    }
+
+    private ArchivedInference row(Long id, LocalDateTime createdAt, String result, String batchId) {
+        return ArchivedInference.builder()
+                .id(id)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusSeconds(3))
+                .userId("mock")
+                .runtime("ONNX")
+                .status(result == null ? "FAIL" : "COMPLETE")
+                .fileName("apple.jpg")
+                .result(result)
+                .batchId(batchId)
+                .build();
+    }
+}
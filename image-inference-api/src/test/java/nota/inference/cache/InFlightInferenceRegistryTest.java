@@ -0,0 +1,36 @@
+package nota.inference.cache;
+
+import nota.inference.domain.model.Runtime;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightInferenceRegistryTest {
+    private final InFlightInferenceRegistry registry = new InFlightInferenceRegistry(100, Duration.ofMinutes(1));
+
+    @Test
+    void register_keepsFirstLeader() {
+        //given
+        registry.register("image", Runtime.ONNX, 1L);
+        //when
+        registry.register("image", Runtime.ONNX, 2L);
+        //then
+        assertEquals(Optional.of(1L), registry.findLeader("image", Runtime.ONNX));
+        assertTrue(registry.findLeader("image", Runtime.TFLITE).isEmpty());
+    }
+
+    @Test
+    void remove_ignoresOtherLeader() {
+        //given
+        registry.register("image", Runtime.ONNX, 1L);
+        //when
+        registry.remove("image", Runtime.ONNX, 2L);
+        //then
+        assertEquals(Optional.of(1L), registry.findLeader("image", Runtime.ONNX));
+        registry.remove("image", Runtime.ONNX, 1L);
+        assertTrue(registry.findLeader("image", Runtime.ONNX).isEmpty());
+    }
+}
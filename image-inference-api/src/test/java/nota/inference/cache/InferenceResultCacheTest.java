@@ -0,0 +1,44 @@
+package nota.inference.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nota.inference.domain.model.Runtime;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceResultCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InferenceResultCache inferenceResultCache =
+            new InferenceResultCache(100, Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    void get_returnsResultOnlyForSameImageAndRuntime() {
+        //given
+        inferenceResultCache.put("image", Runtime.ONNX, "apple");
+        //when
+        Optional<String> onnxResult = inferenceResultCache.get("image", Runtime.ONNX);
+        Optional<String> tfliteResult = inferenceResultCache.get("image", Runtime.TFLITE);
+        //then
+        assertEquals(Optional.of("apple"), onnxResult);
+        assertTrue(tfliteResult.isEmpty());
+    }
+
+    @Test
+    void get_recordsHitAndMissCounters() {
+        //given
+        inferenceResultCache.put("image", Runtime.ONNX, "apple");
+        //when
+        inferenceResultCache.get("image", Runtime.ONNX);
+        inferenceResultCache.get("other", Runtime.ONNX);
+        inferenceResultCache.get("other", Runtime.ONNX);
+        //then
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "inference.result").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "inference.result").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
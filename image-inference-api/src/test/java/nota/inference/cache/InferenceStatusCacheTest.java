@@ -0,0 +1,53 @@
+package nota.inference.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceStatusCacheTest {
+    private final InferenceStatusCache inferenceStatusCache = new InferenceStatusCache(DataSize.ofMegabytes(1),
+            Duration.ofSeconds(30), Duration.ofHours(1), new SimpleMeterRegistry());
+
+    @Test
+    void apply_writesThroughFinishedStatusForEveryId() {
+        //given
+        inferenceStatusCache.put(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null));
+        //when
+        inferenceStatusCache.apply(InferenceStatusChangedMessage.of(List.of(1L, 2L), InferenceStatus.COMPLETE, "apple"));
+        //then
+        assertEquals(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple")), inferenceStatusCache.get(1L));
+        assertEquals(Optional.of(new InferenceStatusSnapshot(2L, InferenceStatus.COMPLETE, "apple")), inferenceStatusCache.get(2L));
+    }
+
+    @Test
+    void apply_invalidatesDeletedIds() {
+        //given
+        inferenceStatusCache.put(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple"));
+        inferenceStatusCache.put(new InferenceStatusSnapshot(2L, InferenceStatus.COMPLETE, "apple"));
+        //when
+        inferenceStatusCache.apply(InferenceStatusChangedMessage.ofDeleted(List.of(1L)));
+        //then
+        assertTrue(inferenceStatusCache.get(1L).isEmpty());
+        assertTrue(inferenceStatusCache.get(2L).isPresent());
+    }
+
+    @Test
+    void invalidateAll_removesEveryEntry() {
+        //given
+        inferenceStatusCache.put(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple"));
+        inferenceStatusCache.put(new InferenceStatusSnapshot(2L, InferenceStatus.PROCESSING, null));
+        //when
+        inferenceStatusCache.invalidateAll();
+        //then
+        assertTrue(inferenceStatusCache.get(1L).isEmpty());
+        assertTrue(inferenceStatusCache.get(2L).isEmpty());
+    }
+}
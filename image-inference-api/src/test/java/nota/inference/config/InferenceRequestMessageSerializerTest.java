@@ -0,0 +1,45 @@
+package nota.inference.config;
+
+import nota.inference.domain.model.Runtime;
+import nota.inference.dto.message.InferenceRequestMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceRequestMessageSerializerTest {
+    private final InferenceRequestMessageSerializer serializer = new InferenceRequestMessageSerializer();
+
+    @Test
+    void serialize_writesHeaderFollowedByImageKey() {
+        //given
+        String imageKey = "a".repeat(64);
+        //when
+        byte[] record = serializer.serialize("onnx_inference_request", InferenceRequestMessage.of(1L, Runtime.ONNX, imageKey));
+        //then
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        assertEquals(InferenceRequestMessageSerializer.VERSION, buffer.get());
+        assertEquals(1L, buffer.getLong());
+        assertEquals("ONNX", readString(buffer));
+        assertEquals(imageKey, readString(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void serialize_staysSmallRegardlessOfImageSize() {
+        //given
+        InferenceRequestMessage message = InferenceRequestMessage.of(Long.MAX_VALUE, Runtime.TFLITE, "f".repeat(64));
+        //when
+        byte[] record = serializer.serialize("tflite_inference_request", message);
+        //then
+        assertTrue(record.length < 100);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,34 +1,46 @@
 package nota.inference.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import nota.inference.admission.AdmissionController;
 import nota.inference.domain.model.Inference;
 import nota.inference.domain.model.InferenceStatus;
 import nota.inference.domain.model.Runtime;
+import nota.inference.dto.response.ExecuteBatchInferenceResponse;
+import nota.inference.dto.response.ExecuteInferenceResponse;
 import nota.inference.dto.response.InferenceHistoryItem;
+import nota.inference.dto.response.InferenceHistoryResponse;
 import nota.inference.dto.response.InferenceResultResponse;
+import nota.inference.exception.Error;
+import nota.inference.exception.InferenceException;
+import nota.inference.exception.RateLimitException;
 import nota.inference.service.InferenceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = InferenceController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -39,6 +51,8 @@ class InferenceControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private InferenceService inferenceService;
+    @MockBean
+    private AdmissionController admissionController;
 
     @Test
     void executeInference_success() throws Exception {
@@ -56,6 +70,94 @@ class InferenceControllerTest {
     }
 
 
+    @Test
+    void executeInference_success_WhenRuntimeIsAuto() throws Exception {
+        //given
+        given(inferenceService.executeInference(any(), eq("auto"), anyString(), any(), eq("high")))
+                .willReturn(ExecuteInferenceResponse.of(1L, Runtime.TFLITE));
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences", HttpMethod.POST)
+                .file(new MockMultipartFile("image", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "auto")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isAccepted(),
+                        jsonPath("$.id").value(1L),
+                        jsonPath("$.runtime").value("TFLITE"));
+    }
+
+    @Test
+    void executeInference_fail_TOO_MANY_REQUESTS_WithRetryAfter() throws Exception {
+        //given
+        willThrow(new RateLimitException(Error.TOO_MANY_REQUESTS, Duration.ofMillis(1200)))
+                .given(admissionController).admit("tenant", 1);
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences", HttpMethod.POST)
+                .file(new MockMultipartFile("image", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "onnx")
+                .header("userId", "tenant")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isTooManyRequests(),
+                        header().string("Retry-After", "2"),
+                        jsonPath("$.code").value("TOO_MANY_REQUESTS"));
+        verify(inferenceService, never()).executeInference(any(), any(), any(), any(), any());
+        verify(admissionController, never()).release();
+    }
+
+    @Test
+    void executeBatchInference_admitsEveryImage_AndReleasesAfterwards() throws Exception {
+        //given
+        given(inferenceService.executeBatchInference(anyList(), anyString(), anyString(), any(), anyString()))
+                .willReturn(ExecuteBatchInferenceResponse.of("batch", Runtime.ONNX, List.of(1L, 2L)));
+        //when
+        mockMvc.perform(multipart("/inferences/batch", HttpMethod.POST)
+                .file(new MockMultipartFile("images", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .file(new MockMultipartFile("images", "dog.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "fghij".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "onnx")
+        );
+        //then
+        verify(admissionController, times(1)).admit("mock", 1);
+        verify(admissionController, times(1)).charge("mock", 1);
+        verify(admissionController, times(1)).release();
+    }
+
+    @Test
+    void getInferenceHistory_skipsAdmission() throws Exception {
+        //given
+        //when
+        mockMvc.perform(get("/inferences"));
+        //then
+        verify(admissionController, never()).admit(any(), anyInt());
+        verify(admissionController, never()).release();
+    }
+
+    @Test
+    void executeInference_fail_WhenPriorityIsNotAllowed() throws Exception {
+        //given
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences", HttpMethod.POST)
+                .file(new MockMultipartFile("image", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "onnx")
+                .param("priority", "urgent")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isBadRequest(),
+                        jsonPath("$.message").value("허용되지 않는 priority 입니다."));
+    }
+
     @Test
     void executeInference_success_caseInsensitive() throws Exception {
         //given
@@ -102,6 +204,62 @@ class InferenceControllerTest {
                         jsonPath("$.message").value("허용되지 않는 runtime 입니다."));
     }
 
+    @Test
+    void executeInference_fail_whenInvalidCallbackUrlIsProvided() throws Exception {
+        //given
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences", HttpMethod.POST)
+                .file(new MockMultipartFile("image", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "onnx")
+                .param("callbackUrl", "ftp://example.com/callback")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isBadRequest(),
+                        jsonPath("$.message").value("올바른 callbackUrl 형식이 아닙니다."));
+    }
+
+    @Test
+    void executeBatchInference_success() throws Exception {
+        //given
+        given(inferenceService.executeBatchInference(anyList(), anyString(), anyString(), any(), anyString()))
+                .willReturn(ExecuteBatchInferenceResponse.of("batch", Runtime.ONNX, List.of(1L, 2L)));
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences/batch", HttpMethod.POST)
+                .file(new MockMultipartFile("images", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .file(new MockMultipartFile("images", "dog.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "fghij".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "onnx")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isAccepted(),
+                        jsonPath("$.batchId").value("batch"),
+                        jsonPath("$.runtime").value("ONNX"),
+                        jsonPath("$.ids.[0]").value(1L),
+                        jsonPath("$.ids.[1]").value(2L));
+    }
+
+    @Test
+    void executeBatchInference_fail_whenInvalidRuntimeIsProvided() throws Exception {
+        //given
+        //when
+        ResultActions actions = mockMvc.perform(multipart("/inferences/batch", HttpMethod.POST)
+                .file(new MockMultipartFile("images", "apple.jpg",
+                        MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes()))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .param("runtime", "abcdefg")
+        );
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isBadRequest(),
+                        jsonPath("$.message").value("허용되지 않는 runtime 입니다."));
+    }
+
     @Test
     void getInferenceResultById_success_WhenInferenceIsProcessing() throws Exception {
         //given
@@ -141,6 +299,117 @@ class InferenceControllerTest {
                         jsonPath("$.result").value("apple"));
     }
 
+    @Test
+    void waitForInferenceResultById_success_WhenInferenceCompletes() throws Exception {
+        //given
+        given(inferenceService.waitForInferenceResult(anyLong(), eq(Duration.ofSeconds(30))))
+                .willReturn(CompletableFuture.completedFuture(InferenceResultResponse.builder()
+                        .isProcessing(false)
+                        .id(1L)
+                        .result("apple")
+                        .build()));
+        MvcResult result = mockMvc.perform(get("/inferences/{inferenceId}", 1L)
+                        .param("wait", "30s"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //when
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.isProcessing").value(false),
+                        jsonPath("$.result").value("apple"));
+    }
+
+    @Test
+    void waitForInferenceResultById_success_WhenWaitElapses() throws Exception {
+        //given
+        given(inferenceService.waitForInferenceResult(anyLong(), any()))
+                .willReturn(CompletableFuture.completedFuture(InferenceResultResponse.builder()
+                        .isProcessing(true)
+                        .id(1L)
+                        .build()));
+        MvcResult result = mockMvc.perform(get("/inferences/{inferenceId}", 1L)
+                        .param("wait", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //when
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isAccepted(),
+                        jsonPath("$.isProcessing").value(true));
+    }
+
+    @Test
+    void waitForInferenceResultById_fail_WhenInferenceFails() throws Exception {
+        //given
+        given(inferenceService.waitForInferenceResult(anyLong(), any()))
+                .willReturn(CompletableFuture.failedFuture(new InferenceException(Error.INFERENCE_EXECUTION_FAILED)));
+        MvcResult result = mockMvc.perform(get("/inferences/{inferenceId}", 1L)
+                        .param("wait", "30s"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //when
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isBadGateway(),
+                        jsonPath("$.code").value("INFERENCE_EXECUTION_FAILED"));
+    }
+
+    @Test
+    void waitForInferenceResultById_fail_WhenWaitIsTooLong() throws Exception {
+        //given
+        //when
+        ResultActions actions = mockMvc.perform(get("/inferences/{inferenceId}", 1L)
+                .param("wait", "2m"));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isBadRequest(),
+                        jsonPath("$.message").value("wait 는 60초 이하의 시간으로 입력해주세요. (ex. 30s)"));
+    }
+
+    @Test
+    void streamInferenceResultById_success() throws Exception {
+        //given
+        given(inferenceService.waitForInferenceResult(anyLong(), any()))
+                .willReturn(CompletableFuture.completedFuture(InferenceResultResponse.builder()
+                        .isProcessing(false)
+                        .id(1L)
+                        .result("apple")
+                        .build()));
+        MvcResult result = mockMvc.perform(get("/inferences/{inferenceId}/events", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //when
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isOk(),
+                        content().string(containsString("event:result")),
+                        content().string(containsString("\"result\":\"apple\"")));
+    }
+
+    @Test
+    void streamInferenceResultById_fail_WhenInferenceIsNotFound() throws Exception {
+        //given
+        given(inferenceService.waitForInferenceResult(anyLong(), any()))
+                .willThrow(new InferenceException(Error.INFERENCE_NOT_FOUND));
+        MvcResult result = mockMvc.perform(get("/inferences/{inferenceId}/events", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //when
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isOk(),
+                        content().string(containsString("event:error")),
+                        content().string(containsString("INFERENCE_NOT_FOUND")));
+    }
+
     @Test
     void deleteInferenceById_success() throws Exception {
         //given
@@ -155,8 +424,8 @@ class InferenceControllerTest {
     @Test
     void getInferenceHistory_success() throws Exception {
         //given
-        given(inferenceService.getInferenceHistory(anyInt(), anyInt(), any(), any(), any()))
-                .willReturn(new PageImpl<>(
+        given(inferenceService.getInferenceHistory(any(), anyInt(), any(), any(), any()))
+                .willReturn(new InferenceHistoryResponse(
                         List.of(
                                 InferenceHistoryItem.builder()
                                         .id(1L)
@@ -175,11 +444,10 @@ class InferenceControllerTest {
                                         .userId("mock")
                                         .createdAt(LocalDateTime.parse("2024-10-02T14:21:00"))
                                         .build()
-                        )
+                        ), false, null
                 ));
         //when
         ResultActions actions = mockMvc.perform(get("/inferences")
-                .param("page", "0")
                 .param("size", "20")
                 .param("runtime", "onnx")
                 .param("createdAt", "2024-10-02T14:00:00")
@@ -206,11 +474,27 @@ class InferenceControllerTest {
                 );
     }
 
+    @Test
+    void getInferenceHistory_success_WithCursor() throws Exception {
+        //given
+        given(inferenceService.getInferenceHistory(eq(Optional.of("cursor")), anyInt(), any(), any(), any()))
+                .willReturn(new InferenceHistoryResponse(List.of(), true, "next-cursor"));
+        //when
+        ResultActions actions = mockMvc.perform(get("/inferences")
+                .param("cursor", "cursor")
+                .contentType(MediaType.APPLICATION_JSON));
+        //then
+        actions.andDo(print())
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.hasNext").value(true),
+                        jsonPath("$.nextCursor").value("next-cursor"));
+    }
+
     @Test
     void getInferenceHistory_success_WhenHaveNoParam() throws Exception {
         //given
-        given(inferenceService.getInferenceHistory(anyInt(), anyInt(), any(), any(), any()))
-                .willReturn(new PageImpl<>(
+        given(inferenceService.getInferenceHistory(any(), anyInt(), any(), any(), any()))
+                .willReturn(new InferenceHistoryResponse(
                         List.of(
                                 InferenceHistoryItem.builder()
                                         .id(1L)
@@ -229,7 +513,7 @@ class InferenceControllerTest {
                                         .userId("mock")
                                         .createdAt(LocalDateTime.parse("2024-10-02T14:21:00"))
                                         .build()
-                        )
+                        ), false, null
                 ));
         //when
         ResultActions actions = mockMvc.perform(get("/inferences")
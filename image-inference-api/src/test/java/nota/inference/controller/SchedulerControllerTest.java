@@ -1,6 +1,7 @@
 package nota.inference.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import nota.inference.admission.AdmissionController;
 import nota.inference.service.SchedulerService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,8 @@ class SchedulerControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private SchedulerService schedulerService;
+    @MockBean
+    private AdmissionController admissionController;
 
     @Test
     void updateInferenceHistoryDeleteSchedule_success() throws Exception {
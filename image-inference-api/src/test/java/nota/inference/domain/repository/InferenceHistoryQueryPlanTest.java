@@ -0,0 +1,73 @@
+package nota.inference.domain.repository;
+
+import nota.inference.config.JpaConfig;
+import nota.inference.domain.model.Runtime;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=nota.inference.domain.repository.InferenceHistoryQueryPlanTest$SqlRecorder"
+})
+@Import(JpaConfig.class)
+class InferenceHistoryQueryPlanTest {
+    private static final LocalDateTime HOUR = LocalDateTime.parse("2024-10-02T14:00:00");
+
+    @Autowired
+    private InferenceRepository inferenceRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> historyQueries() {
+        return Stream.of(
+                Arguments.of(InferenceHistoryFilter.builder().build(), "IDX_INFERENCE_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().createdFrom(HOUR).createdTo(HOUR.plusHours(1)).build(), "IDX_INFERENCE_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().userId("mock").build(), "IDX_INFERENCE_USERID_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().userId("mock").createdFrom(HOUR).createdTo(HOUR.plusHours(1)).build(), "IDX_INFERENCE_USERID_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().runtime(Runtime.ONNX).build(), "IDX_INFERENCE_RUNTIME_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().userId("mock").runtime(Runtime.ONNX).build(), "IDX_INFERENCE_USERID_RUNTIME_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().cursorCreatedAt(HOUR).cursorId(1L).build(), "IDX_INFERENCE_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().userId("mock").cursorCreatedAt(HOUR).cursorId(1L).build(), "IDX_INFERENCE_USERID_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().runtime(Runtime.TFLITE).cursorCreatedAt(HOUR).cursorId(1L).build(), "IDX_INFERENCE_RUNTIME_CREATEDAT_ID"),
+                Arguments.of(InferenceHistoryFilter.builder().userId("mock").runtime(Runtime.ONNX).createdFrom(HOUR).createdTo(HOUR.plusHours(1))
+                        .cursorCreatedAt(HOUR).cursorId(1L).build(), "IDX_INFERENCE_USERID_RUNTIME_CREATEDAT_ID")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("historyQueries")
+    void findHistory_usesIndex(InferenceHistoryFilter filter, String index) {
+        //given
+        SqlRecorder.statements.clear();
+        inferenceRepository.findHistory(filter, 11);
+        String sql = SqlRecorder.statements.getLast();
+        //when
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        //then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains("PUBLIC." + index), plan);
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package nota.inference.domain.repository;
+
+import nota.inference.config.JpaConfig;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.Runtime;
+import nota.inference.dto.response.InferenceHistoryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ./gradlew benchmark; h2 runs in the calling thread, so the plain jdbc query is printed as the floor both paths share
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InferenceHistoryRepositoryBenchmarkTest {
+    private static final int ROWS = 5_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired
+    private InferenceRepository inferenceRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Inference> inferences = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Inference inference = Inference.of(i % 2 == 0 ? Runtime.ONNX : Runtime.TFLITE, "image-" + i + ".jpg", "user-" + i % 10, "key-" + i);
+            inference.complete("label-" + i % 100);
+            inferences.add(inference);
+        }
+        inferenceRepository.saveAll(inferences);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inferenceRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findHistory_allocatesLessPerPageThanEntityMapping() {
+        //given
+        Specification<Inference> specification = (root, _, criteriaBuilder) -> criteriaBuilder.equal(root.get("runtime"), Runtime.ONNX);
+        Supplier<List<InferenceHistoryItem>> entityMapping = () -> inferenceRepository.findBy(specification, query -> query
+                        .sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                        .limit(PAGE_SIZE)
+                        .all())
+                .stream()
+                .map(InferenceHistoryItem::from)
+                .toList();
+        Supplier<List<InferenceHistoryItem>> projection = () ->
+                inferenceRepository.findHistory(InferenceHistoryFilter.builder().runtime(Runtime.ONNX).build(), PAGE_SIZE);
+        Supplier<List<InferenceHistoryItem>> jdbc = () -> jdbcTemplate.query(
+                "select id, file_name, runtime, status, result, user_id, created_at from inferences " +
+                        "where runtime = ? order by created_at desc, id desc limit ?",
+                (rs, _) -> new InferenceHistoryItem(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getTimestamp(7).toLocalDateTime()),
+                Runtime.ONNX.name(), PAGE_SIZE);
+        assertEquals(entityMapping.get(), projection.get());
+        //when
+        long entityBytes = allocatedBytesPerPage(entityMapping);
+        long projectionBytes = allocatedBytesPerPage(projection);
+        long jdbcBytes = allocatedBytesPerPage(jdbc);
+        //then
+        System.out.printf("history page of %d rows: entity mapping %d bytes, dto projection %d bytes, plain jdbc %d bytes%n",
+                PAGE_SIZE, entityBytes, projectionBytes, jdbcBytes);
+        assertTrue(projectionBytes < entityBytes);
+    }
+
+    private long allocatedBytesPerPage(Supplier<List<InferenceHistoryItem>> query) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            query.get();
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+            query.get();
+        return (threadMXBean.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+}
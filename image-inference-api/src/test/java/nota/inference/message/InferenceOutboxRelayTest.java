@@ -0,0 +1,63 @@
+package nota.inference.message;
+
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.service.InferenceOutboxService;
+import nota.inference.service.InferenceService;
+import nota.inference.service.OutboxRelayResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceOutboxRelayTest {
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private InferenceOutboxService inferenceOutboxService;
+    @Mock
+    private InferenceService inferenceService;
+
+    private InferenceOutboxRelay inferenceOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        inferenceOutboxRelay = new InferenceOutboxRelay(taskScheduler, inferenceOutboxService, inferenceService, Duration.ofSeconds(1), 2);
+    }
+
+    @Test
+    void relay_failsAndBroadcastsUndeliverableInferences() {
+        //given
+        List<InferenceStatusChangedMessage> changes = List.of(InferenceStatusChangedMessage.of(List.of(10L, 11L), InferenceStatus.FAIL, null));
+        given(inferenceOutboxService.relayBatch()).willReturn(new OutboxRelayResult(0, List.of(10L)));
+        given(inferenceService.markInferencesAsFail(List.of(new InferenceFailMessage(10L)))).willReturn(changes);
+        //when
+        inferenceOutboxRelay.relay();
+        //then
+        verify(inferenceService, times(1)).publishStatusChanges(changes);
+        verify(inferenceOutboxService, times(1)).refreshBacklog();
+    }
+
+    @Test
+    void relay_keepsDraining_WhileWholeBatchesAreDelivered() {
+        //given
+        given(inferenceOutboxService.relayBatch())
+                .willReturn(new OutboxRelayResult(2, List.of()), OutboxRelayResult.empty());
+        //when
+        inferenceOutboxRelay.relay();
+        //then
+        verify(inferenceOutboxService, times(2)).relayBatch();
+        verify(inferenceService, never()).markInferencesAsFail(any());
+    }
+}
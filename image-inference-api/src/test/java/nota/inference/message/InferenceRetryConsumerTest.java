@@ -0,0 +1,76 @@
+package nota.inference.message;
+
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.domain.model.Runtime;
+import nota.inference.service.InferenceRetryService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.converter.RecordMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceRetryConsumerTest {
+    private static final ConsumerRecord<String, Object> RECORD = new ConsumerRecord<>("inference_retry_5s", 0, 0L, null, "{}");
+
+    @Mock
+    private ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory;
+    @Mock
+    private RecordMessageConverter recordMessageConverter;
+    @Mock
+    private InferenceRetryService inferenceRetryService;
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private InferenceRetryConsumer inferenceRetryConsumer;
+
+    @BeforeEach
+    void setUp() {
+        inferenceRetryConsumer = new InferenceRetryConsumer(retryKafkaListenerContainerFactory, recordMessageConverter, inferenceRetryService);
+    }
+
+    @Test
+    void handleRetry_nacksWithRemainingDelay_WhenRecordIsNotDue() {
+        //given
+        InferenceRetryMessage message = new InferenceRetryMessage(1L, Runtime.ONNX, "image-1", 1, 0, Instant.now().plusSeconds(5));
+        given(recordMessageConverter.toMessage(eq(RECORD), eq(acknowledgment), any(), eq(InferenceRetryMessage.class)))
+                .willAnswer(_ -> MessageBuilder.withPayload(message).build());
+        //when
+        inferenceRetryConsumer.handleRetry(RECORD, acknowledgment);
+        //then
+        ArgumentCaptor<Duration> wait = ArgumentCaptor.forClass(Duration.class);
+        verify(acknowledgment, times(1)).nack(wait.capture());
+        assertTrue(wait.getValue().compareTo(Duration.ofSeconds(5)) <= 0 && wait.getValue().isPositive());
+        verify(acknowledgment, never()).acknowledge();
+        verify(inferenceRetryService, never()).redispatch(any());
+    }
+
+    @Test
+    void handleRetry_redispatchesAndAcknowledges_WhenRecordIsDue() {
+        //given
+        InferenceRetryMessage message = new InferenceRetryMessage(1L, Runtime.ONNX, "image-1", 1, 0, Instant.now().minusSeconds(1));
+        given(recordMessageConverter.toMessage(eq(RECORD), eq(acknowledgment), any(), eq(InferenceRetryMessage.class)))
+                .willAnswer(_ -> MessageBuilder.withPayload(message).build());
+        //when
+        inferenceRetryConsumer.handleRetry(RECORD, acknowledgment);
+        //then
+        verify(inferenceRetryService, times(1)).redispatch(message);
+        verify(acknowledgment, times(1)).acknowledge();
+        verify(acknowledgment, never()).nack(any(Duration.class));
+    }
+}
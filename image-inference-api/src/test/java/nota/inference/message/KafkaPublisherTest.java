@@ -0,0 +1,67 @@
+package nota.inference.message;
+
+import nota.inference.exception.InferenceException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static nota.inference.exception.Error.TOO_MANY_PENDING_INFERENCES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaPublisherTest {
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Test
+    void sendMessages_fail_TOO_MANY_PENDING_INFERENCES_WhenInFlightSendsAreExhausted() {
+        //given
+        KafkaPublisher kafkaPublisher = new KafkaPublisher(kafkaTemplate, kafkaTemplate, 2);
+        given(kafkaTemplate.send(eq("topic"), any())).willReturn(new CompletableFuture<>());
+        kafkaPublisher.sendMessages("topic", List.of("a", "b"));
+        //when
+        InferenceException e = assertThrows(InferenceException.class, () -> kafkaPublisher.sendMessages("topic", List.of("c")));
+        //then
+        assertEquals(TOO_MANY_PENDING_INFERENCES, e.getError());
+        verify(kafkaTemplate, times(2)).send(eq("topic"), any());
+    }
+
+    @Test
+    void sendMessages_releasesInFlightSends_WhenDeliveryCompletes() {
+        //given
+        KafkaPublisher kafkaPublisher = new KafkaPublisher(kafkaTemplate, kafkaTemplate, 1);
+        CompletableFuture<SendResult<String, Object>> delivery = new CompletableFuture<>();
+        given(kafkaTemplate.send(eq("topic"), any())).willReturn(delivery).willReturn(new CompletableFuture<>());
+        kafkaPublisher.sendMessages("topic", List.of("a"));
+        //when
+        delivery.completeExceptionally(new IllegalStateException("broker unavailable"));
+        List<CompletableFuture<SendResult<String, Object>>> futures = kafkaPublisher.sendMessages("topic", List.of("b"));
+        //then
+        assertEquals(1, futures.size());
+        verify(kafkaTemplate, times(2)).send(eq("topic"), any());
+    }
+
+    @Test
+    void sendMessages_returnsFailedFuture_WhenSendThrows() {
+        //given
+        KafkaPublisher kafkaPublisher = new KafkaPublisher(kafkaTemplate, kafkaTemplate, 1);
+        given(kafkaTemplate.send(eq("topic"), any()))
+                .willThrow(new IllegalStateException("serialization failed"))
+                .willReturn(new CompletableFuture<>());
+        //when
+        List<CompletableFuture<SendResult<String, Object>>> futures = kafkaPublisher.sendMessages("topic", List.of("a"));
+        //then
+        assertTrue(futures.getFirst().isCompletedExceptionally());
+        assertDoesNotThrow(() -> kafkaPublisher.sendMessages("topic", List.of("b")));
+    }
+}
@@ -0,0 +1,121 @@
+package nota.inference.routing;
+
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceLatency;
+import nota.inference.domain.repository.InferenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class RuntimeLoadMonitorTest {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.parse("2024-10-02T14:00:00");
+
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private ConsumerLagReader consumerLagReader;
+    @Mock
+    private InferenceRepository inferenceRepository;
+
+    private RuntimeLoadMonitor runtimeLoadMonitor;
+
+    @BeforeEach
+    void setUp() {
+        runtimeLoadMonitor = new RuntimeLoadMonitor(taskScheduler, consumerLagReader, inferenceRepository,
+                Map.of(Runtime.ONNX, "onnx-group", Runtime.TFLITE, "tflite-group"),
+                Duration.ofSeconds(5), Duration.ofMinutes(5), 1000, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void refresh_readsLagAndServiceTimePerRuntime() throws Exception {
+        //given
+        given(consumerLagReader.readLag("onnx-group", "onnx_inference_request")).willReturn(120L);
+        given(consumerLagReader.readLag("onnx-group", "onnx_inference_request_low")).willReturn(0L);
+        given(consumerLagReader.readLag("tflite-group", "tflite_inference_request")).willReturn(3L);
+        given(consumerLagReader.readLag("tflite-group", "tflite_inference_request_low")).willReturn(0L);
+        given(inferenceRepository.findRecentLatencies(eq(Runtime.ONNX), any(), any())).willReturn(IntStream.rangeClosed(1, 100)
+                .mapToObj(seconds -> new InferenceLatency(CREATED_AT, CREATED_AT.plusSeconds(seconds)))
+                .toList());
+        given(inferenceRepository.findRecentLatencies(eq(Runtime.TFLITE), any(), any())).willReturn(List.of());
+        //when
+        runtimeLoadMonitor.refresh();
+        //then
+        Map<Runtime, RuntimeLoad> loads = runtimeLoadMonitor.getLoads();
+        assertEquals(new RuntimeLoad(Runtime.ONNX, 120, Duration.ofSeconds(3)), loads.get(Runtime.ONNX));
+        assertEquals(new RuntimeLoad(Runtime.TFLITE, 3, Duration.ofSeconds(1)), loads.get(Runtime.TFLITE));
+    }
+
+    @Test
+    void refresh_addsLowPriorityBacklogToTheLag() throws Exception {
+        //given
+        given(consumerLagReader.readLag("onnx-group", "onnx_inference_request")).willReturn(2L);
+        given(consumerLagReader.readLag("onnx-group", "onnx_inference_request_low")).willReturn(5000L);
+        given(consumerLagReader.readLag("tflite-group", "tflite_inference_request")).willReturn(0L);
+        given(consumerLagReader.readLag("tflite-group", "tflite_inference_request_low")).willReturn(0L);
+        given(inferenceRepository.findRecentLatencies(any(), any(), any())).willReturn(List.of());
+        //when
+        runtimeLoadMonitor.refresh();
+        //then
+        Map<Runtime, RuntimeLoad> loads = runtimeLoadMonitor.getLoads();
+        assertEquals(5002, loads.get(Runtime.ONNX).lag());
+        assertEquals(0, loads.get(Runtime.TFLITE).lag());
+    }
+
+    @Test
+    void serviceTime_usesCompletionInterval_WhenWorkersAreBusy() {
+        //given
+        RuntimeLoadMonitor saturated = new RuntimeLoadMonitor(taskScheduler, consumerLagReader, inferenceRepository,
+                Map.of(Runtime.ONNX, "onnx-group"), Duration.ofSeconds(5), Duration.ofMinutes(5), 4, Duration.ofSeconds(1));
+        LocalDateTime now = CREATED_AT.plusMinutes(1);
+        List<InferenceLatency> samples = IntStream.range(0, 4)
+                .mapToObj(index -> new InferenceLatency(CREATED_AT, now.minus(Duration.ofMillis(500L * index))))
+                .toList();
+        //when
+        Duration serviceTime = saturated.serviceTime(samples, now);
+        //then
+        assertEquals(Duration.ofMillis(375), serviceTime);
+    }
+
+    @Test
+    void serviceTime_usesMedianLatency_WhenWorkersAreMostlyIdle() {
+        //given
+        LocalDateTime now = CREATED_AT.plusMinutes(1);
+        List<InferenceLatency> samples = List.of(
+                new InferenceLatency(now.minus(Duration.ofMillis(300)), now),
+                new InferenceLatency(now.minusSeconds(30).minus(Duration.ofMillis(200)), now.minusSeconds(30)));
+        //when
+        Duration serviceTime = runtimeLoadMonitor.serviceTime(samples, now);
+        //then
+        assertEquals(Duration.ofMillis(200), serviceTime);
+    }
+
+    @Test
+    void refresh_keepsLastLag_WhenBrokerCannotBeRead() throws Exception {
+        //given
+        given(consumerLagReader.readLag(any(), any())).willReturn(25L);
+        given(inferenceRepository.findRecentLatencies(any(), any(), any())).willReturn(List.of());
+        runtimeLoadMonitor.refresh();
+        given(consumerLagReader.readLag(any(), any())).willThrow(new TimeoutException());
+        //when
+        runtimeLoadMonitor.refresh();
+        //then
+        assertEquals(50, runtimeLoadMonitor.getLoads().get(Runtime.ONNX).lag());
+        assertEquals(50, runtimeLoadMonitor.getLoads().get(Runtime.TFLITE).lag());
+    }
+}
@@ -0,0 +1,40 @@
+package nota.inference.routing;
+
+import nota.inference.domain.model.Runtime;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuntimeRouterTest {
+
+    @Test
+    void choose_splitsEvenly_WhenRuntimesAreEquallyLoaded() {
+        //given
+        List<RuntimeLoad> loads = List.of(
+                new RuntimeLoad(Runtime.ONNX, 10, Duration.ofMillis(200)),
+                new RuntimeLoad(Runtime.TFLITE, 10, Duration.ofMillis(200)));
+        //when
+        Runtime low = RuntimeRouter.choose(loads, 0.49);
+        Runtime high = RuntimeRouter.choose(loads, 0.51);
+        //then
+        assertEquals(Runtime.ONNX, low);
+        assertEquals(Runtime.TFLITE, high);
+    }
+
+    @Test
+    void choose_favorsRuntimeWithShorterEstimatedWait() {
+        //given
+        List<RuntimeLoad> loads = List.of(
+                new RuntimeLoad(Runtime.ONNX, 999, Duration.ofMillis(100)),
+                new RuntimeLoad(Runtime.TFLITE, 0, Duration.ofMillis(100)));
+        //when
+        Runtime rarelyChosen = RuntimeRouter.choose(loads, 0.0005);
+        Runtime mostlyChosen = RuntimeRouter.choose(loads, 0.01);
+        //then
+        assertEquals(Runtime.ONNX, rarelyChosen);
+        assertEquals(Runtime.TFLITE, mostlyChosen);
+    }
+}
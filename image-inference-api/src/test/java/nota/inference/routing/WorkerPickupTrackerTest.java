@@ -0,0 +1,104 @@
+package nota.inference.routing;
+
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class WorkerPickupTrackerTest {
+    private static final LocalDateTime BASE = LocalDateTime.parse("2024-10-02T14:00:00");
+    private static final String LOW_TOPIC = "onnx_inference_request_low";
+
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private ConsumerLagReader consumerLagReader;
+
+    private WorkerPickupTracker workerPickupTracker;
+
+    @BeforeEach
+    void setUp() {
+        workerPickupTracker = new WorkerPickupTracker(taskScheduler, consumerLagReader,
+                Map.of(Runtime.ONNX, "onnx-group", Runtime.TFLITE, "tflite-group"), Duration.ofSeconds(5), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void pickedUpBefore_isEmpty_UntilASampleIsConsumed() {
+        //given
+        workerPickupTracker.record(LOW_TOPIC, BASE, offsets(10, 0), BASE);
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusMinutes(1), offsets(20, 5), BASE.plusMinutes(1));
+        //when
+        Optional<LocalDateTime> pickedUpBefore = workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusMinutes(5));
+        //then
+        assertTrue(pickedUpBefore.isEmpty());
+        assertTrue(workerPickupTracker.pickedUpBefore(Runtime.TFLITE, Priority.HIGH, BASE.plusMinutes(5)).isEmpty());
+    }
+
+    @Test
+    void pickedUpBefore_countsFromWhenTheBacklogWasConsumed() {
+        //given
+        workerPickupTracker.record(LOW_TOPIC, BASE, offsets(10, 0), BASE);
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusMinutes(1), offsets(20, 0), BASE.plusMinutes(1));
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusMinutes(5), offsets(20, 10), BASE.plusMinutes(5));
+        //when
+        Optional<LocalDateTime> beforeConsumed = workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusMinutes(4));
+        Optional<LocalDateTime> afterConsumed = workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusMinutes(6));
+        //then
+        assertTrue(beforeConsumed.isEmpty());
+        assertEquals(Optional.of(BASE), afterConsumed);
+    }
+
+    @Test
+    void pickedUpBefore_followsAnIdleLane() {
+        //given
+        workerPickupTracker.record(LOW_TOPIC, BASE, offsets(10, 10), BASE);
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusSeconds(5), offsets(10, 10), BASE.plusSeconds(5));
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusSeconds(10), offsets(10, 10), BASE.plusSeconds(10));
+        //when
+        Optional<LocalDateTime> pickedUpBefore = workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusSeconds(7));
+        //then
+        assertEquals(Optional.of(BASE.plusSeconds(5)), pickedUpBefore);
+    }
+
+    @Test
+    void record_prunesSamplesOlderThanTheHistory() {
+        //given
+        workerPickupTracker.record(LOW_TOPIC, BASE, offsets(10, 10), BASE);
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusMinutes(1), offsets(20, 20), BASE.plusMinutes(1));
+        workerPickupTracker.record(LOW_TOPIC, BASE.plusMinutes(12), offsets(30, 30), BASE.plusMinutes(12));
+        //when
+        Optional<LocalDateTime> pickedUpBefore = workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusSeconds(30));
+        //then
+        assertTrue(pickedUpBefore.isEmpty());
+        assertEquals(Optional.of(BASE.plusMinutes(1)), workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, BASE.plusMinutes(2)));
+    }
+
+    @Test
+    void refresh_skipsALaneThatCannotBeRead() throws Exception {
+        //given
+        given(consumerLagReader.readOffsets(anyString(), anyString())).willThrow(new TimeoutException("broker down"));
+        //when
+        workerPickupTracker.refresh();
+        //then
+        assertTrue(workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.HIGH, LocalDateTime.now().plusMinutes(1)).isEmpty());
+    }
+
+    private TopicOffsets offsets(long latest, long committed) {
+        return new TopicOffsets(Map.of(0, latest), Map.of(0, committed));
+    }
+}
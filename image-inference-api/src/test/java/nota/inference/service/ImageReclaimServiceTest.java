@@ -0,0 +1,74 @@
+package nota.inference.service;
+
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.storage.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageReclaimServiceTest {
+    private static final LocalDateTime BOUND = LocalDateTime.parse("2024-09-10T00:00:00");
+
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private ImageStore imageStore;
+
+    private ImageReclaimService imageReclaimService;
+
+    @BeforeEach
+    void setUp() {
+        imageReclaimService = new ImageReclaimService(inferenceRepository, imageStore);
+    }
+
+    @Test
+    void reclaim_deletesOnlyImagesNoRowPointsAt() throws IOException {
+        //given
+        given(inferenceRepository.findReferencedImageKeys(List.of("apple", "banana"))).willReturn(List.of("banana"));
+        //when
+        int reclaimed = imageReclaimService.reclaim(List.of("apple", "banana"));
+        //then
+        assertEquals(1, reclaimed);
+        verify(imageStore, times(1)).delete(Set.of("apple"));
+    }
+
+    @Test
+    void reclaim_keepsGoing_WhenStoreDeleteFails() throws IOException {
+        //given
+        given(inferenceRepository.findReferencedImageKeys(List.of("apple"))).willReturn(List.of());
+        doThrow(new IOException("disk")).when(imageStore).delete(any());
+        //when
+        int reclaimed = imageReclaimService.reclaim(List.of("apple"));
+        //then
+        assertEquals(0, reclaimed);
+    }
+
+    @Test
+    void reclaimCreatedBefore_pagesKeysAndKeepsImagesOfNewerRows() throws IOException {
+        //given
+        given(inferenceRepository.findImageKeysCreatedBefore(BOUND, "", PageRequest.ofSize(2))).willReturn(List.of("apple", "banana"));
+        given(inferenceRepository.findImageKeysCreatedBefore(BOUND, "banana", PageRequest.ofSize(2))).willReturn(List.of("cherry"));
+        given(inferenceRepository.findImageKeysReferencedSince(List.of("apple", "banana"), BOUND)).willReturn(List.of("apple"));
+        given(inferenceRepository.findImageKeysReferencedSince(List.of("cherry"), BOUND)).willReturn(List.of());
+        //when
+        int reclaimed = imageReclaimService.reclaimCreatedBefore(BOUND, 2);
+        //then
+        assertEquals(2, reclaimed);
+        verify(imageStore, times(1)).delete(Set.of("banana"));
+        verify(imageStore, times(1)).delete(Set.of("cherry"));
+    }
+}
@@ -0,0 +1,194 @@
+package nota.inference.service;
+
+import nota.inference.archive.ArchivedInference;
+import nota.inference.archive.InferenceArchiveWriter;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceArchiveSegment;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceArchiveSegmentRepository;
+import nota.inference.domain.repository.InferenceHistoryFilter;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.response.InferenceHistoryItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceArchiveServiceTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().minusDays(10).withNano(0);
+
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private InferenceArchiveSegmentRepository inferenceArchiveSegmentRepository;
+    @Mock
+    private ImageReclaimService imageReclaimService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    Path directory;
+
+    private InferenceArchiveService inferenceArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        inferenceArchiveService = new InferenceArchiveService(inferenceRepository, inferenceArchiveSegmentRepository, imageReclaimService,
+                transactionManager, true, directory, Duration.ofDays(7), Duration.ofDays(30), 2);
+    }
+
+    @Test
+    void archiveSegment_writesSegmentAndMovesRowsOutOfHotTable() {
+        //given
+        given(inferenceRepository.findArchivable(any(), any())).willReturn(List.of(inference(3L, 0), inference(4L, 1)));
+        //when
+        int archived = inferenceArchiveService.archiveSegment(BASE);
+        //then
+        assertEquals(2, archived);
+        ArgumentCaptor<InferenceArchiveSegment> segment = ArgumentCaptor.forClass(InferenceArchiveSegment.class);
+        verify(inferenceArchiveSegmentRepository, times(1)).save(segment.capture());
+        assertEquals("inferences-3-4.cols", segment.getValue().getFileName());
+        assertEquals(BASE, segment.getValue().getMinCreatedAt());
+        assertEquals(BASE.plusMinutes(1), segment.getValue().getMaxCreatedAt());
+        assertTrue(Files.exists(directory.resolve("inferences-3-4.cols")));
+        verify(inferenceRepository, times(1)).deleteAllByIdInBatch(List.of(3L, 4L));
+        verify(imageReclaimService, times(1)).reclaim(List.of("key"));
+    }
+
+    @Test
+    void archiveSegment_removesSegmentFile_WhenHotDeleteFails() {
+        //given
+        given(inferenceRepository.findArchivable(any(), any())).willReturn(List.of(inference(3L, 0)));
+        doThrow(new IllegalStateException("deadlock")).when(inferenceRepository).deleteAllByIdInBatch(any());
+        //when
+        assertThrows(IllegalStateException.class, () -> inferenceArchiveService.archiveSegment(BASE));
+        //then
+        assertFalse(Files.exists(directory.resolve("inferences-3-3.cols")));
+        verifyNoInteractions(imageReclaimService);
+    }
+
+    @Test
+    void findHistory_readsNewestMatchingRowsAcrossSegments() throws IOException {
+        //given
+        InferenceArchiveSegment newer = segment("newer.cols", List.of(row(5L, 5, "mock"), row(4L, 4, "other"), row(3L, 3, "mock")));
+        InferenceArchiveSegment older = segment("older.cols", List.of(row(2L, 2, "mock"), row(1L, 1, "mock")));
+        given(inferenceArchiveSegmentRepository.findOverlapping(any(), isNull())).willReturn(List.of(newer, older));
+        InferenceHistoryFilter filter = InferenceHistoryFilter.builder().userId("mock").build();
+        //when
+        List<InferenceHistoryItem> items = inferenceArchiveService.findHistory(filter, 3, null);
+        //then
+        assertEquals(List.of(5L, 3L, 2L), items.stream().map(InferenceHistoryItem::id).toList());
+    }
+
+    @Test
+    void findHistory_skipsOlderSegments_WhenPageIsAlreadyFull() throws IOException {
+        //given
+        InferenceArchiveSegment newer = segment("newer.cols", List.of(row(5L, 5, "mock"), row(4L, 4, "mock")));
+        InferenceArchiveSegment older = InferenceArchiveSegment.builder()
+                .fileName("missing.cols")
+                .maxCreatedAt(BASE.plusMinutes(2))
+                .build();
+        given(inferenceArchiveSegmentRepository.findOverlapping(any(), isNull())).willReturn(List.of(newer, older));
+        //when
+        List<InferenceHistoryItem> items = inferenceArchiveService.findHistory(InferenceHistoryFilter.builder().build(), 2, null);
+        //then
+        assertEquals(List.of(5L, 4L), items.stream().map(InferenceHistoryItem::id).toList());
+    }
+
+    @Test
+    void findHistory_continuesAfterCursor() throws IOException {
+        //given
+        InferenceArchiveSegment segment = segment("segment.cols", List.of(row(5L, 4, "mock"), row(4L, 4, "mock"), row(3L, 3, "mock")));
+        InferenceHistoryFilter filter = InferenceHistoryFilter.builder()
+                .cursorCreatedAt(BASE.plusMinutes(4))
+                .cursorId(5L)
+                .build();
+        given(inferenceArchiveSegmentRepository.findOverlapping(any(), eq(BASE.plusMinutes(4)))).willReturn(List.of(segment));
+        //when
+        List<InferenceHistoryItem> items = inferenceArchiveService.findHistory(filter, 10, null);
+        //then
+        assertEquals(List.of(4L, 3L), items.stream().map(InferenceHistoryItem::id).toList());
+    }
+
+    @Test
+    void findHistory_skipsRowsPastRetention() throws IOException {
+        //given
+        int pastRetention = -30 * 24 * 60;
+        InferenceArchiveSegment segment = segment("segment.cols", List.of(row(2L, 0, "mock"), row(1L, pastRetention, "mock")));
+        given(inferenceArchiveSegmentRepository.findOverlapping(any(), any())).willReturn(List.of(segment));
+        //when
+        List<InferenceHistoryItem> items = inferenceArchiveService.findHistory(InferenceHistoryFilter.builder().build(), 10, null);
+        //then
+        assertEquals(List.of(2L), items.stream().map(InferenceHistoryItem::id).toList());
+    }
+
+    @Test
+    void expireSegments_deletesIndexRowAndFile() throws IOException {
+        //given
+        InferenceArchiveSegment segment = segment("expired.cols", List.of(row(1L, 0, "mock")));
+        given(inferenceArchiveSegmentRepository.findExpired(BASE)).willReturn(List.of(segment));
+        //when
+        int expired = inferenceArchiveService.expireSegments(BASE);
+        //then
+        assertEquals(1, expired);
+        verify(inferenceArchiveSegmentRepository, times(1)).delete(segment);
+        assertFalse(Files.exists(directory.resolve("expired.cols")));
+    }
+
+    private InferenceArchiveSegment segment(String fileName, List<ArchivedInference> rows) throws IOException {
+        InferenceArchiveWriter.write(directory.resolve(fileName), rows);
+        return InferenceArchiveSegment.builder()
+                .fileName(fileName)
+                .rowCount(rows.size())
+                .maxCreatedAt(rows.getFirst().createdAt())
+                .minCreatedAt(rows.getLast().createdAt())
+                .build();
+    }
+
+    private ArchivedInference row(Long id, int minutes, String userId) {
+        return ArchivedInference.builder()
+                .id(id)
+                .createdAt(BASE.plusMinutes(minutes))
+                .updatedAt(BASE.plusMinutes(minutes))
+                .userId(userId)
+                .runtime("ONNX")
+                .status("COMPLETE")
+                .fileName("apple.jpg")
+                .result("apple")
+                .build();
+    }
+
+    private Inference inference(Long id, int minutes) {
+        Inference inference = Inference.builder()
+                .id(id)
+                .runtime(Runtime.ONNX)
+                .status(InferenceStatus.COMPLETE)
+                .userId("mock")
+                .fileName("apple.jpg")
+                .result("apple")
+                .imageKey("key")
+                .build();
+        ReflectionTestUtils.setField(inference, "createdAt", BASE.plusMinutes(minutes));
+        ReflectionTestUtils.setField(inference, "updatedAt", BASE.plusMinutes(minutes));
+        return inference;
+    }
+}
@@ -0,0 +1,92 @@
+package nota.inference.service;
+
+import nota.inference.cache.InferenceStatusCache;
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.message.KafkaPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceHistoryPurgeServiceTest {
+    private static final LocalDateTime CUTOFF = LocalDateTime.parse("2024-10-01T00:00:00");
+
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private InferenceStatusCache inferenceStatusCache;
+    @Mock
+    private KafkaPublisher kafkaPublisher;
+    @Mock
+    private ImageReclaimService imageReclaimService;
+
+    private InferenceHistoryPurgeService inferenceHistoryPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        inferenceHistoryPurgeService = new InferenceHistoryPurgeService(inferenceRepository, inferenceStatusCache,
+                kafkaPublisher, imageReclaimService, Duration.ofDays(30), 2, Duration.ZERO);
+    }
+
+    @Test
+    void purgeCreatedBefore_deletesChunkByChunkUntilShortChunk() {
+        //given
+        given(inferenceRepository.findMaxIdCreatedBefore(CUTOFF)).willReturn(Optional.of(10L));
+        given(inferenceRepository.findPurgeableIds(0L, 10L, CUTOFF, PageRequest.ofSize(2))).willReturn(List.of(1L, 2L));
+        given(inferenceRepository.findPurgeableIds(2L, 10L, CUTOFF, PageRequest.ofSize(2))).willReturn(List.of(5L));
+        given(inferenceRepository.findImageKeysByIdIn(List.of(1L, 2L))).willReturn(List.of("apple"));
+        given(inferenceRepository.findImageKeysByIdIn(List.of(5L))).willReturn(List.of("banana"));
+        //when
+        int purged = inferenceHistoryPurgeService.purgeCreatedBefore(CUTOFF);
+        //then
+        assertEquals(3, purged);
+        verify(inferenceRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(inferenceRepository, times(1)).deleteAllByIdInBatch(List.of(5L));
+        verify(inferenceRepository, times(2)).findPurgeableIds(any(), any(), any(), any());
+        verify(inferenceStatusCache, times(1)).apply(InferenceStatusChangedMessage.ofDeleted(List.of(1L, 2L)));
+        verify(kafkaPublisher, times(1)).sendMessage(KafkaTopicConfig.INFERENCE_STATUS_CHANGED_TOPIC,
+                InferenceStatusChangedMessage.ofDeleted(List.of(5L)));
+        verify(imageReclaimService, times(1)).reclaim(List.of("apple"));
+        verify(imageReclaimService, times(1)).reclaim(List.of("banana"));
+    }
+
+    @Test
+    void purgeCreatedBefore_stopsWhenRangeIsExhausted() {
+        //given
+        given(inferenceRepository.findMaxIdCreatedBefore(CUTOFF)).willReturn(Optional.of(2L));
+        given(inferenceRepository.findPurgeableIds(0L, 2L, CUTOFF, PageRequest.ofSize(2))).willReturn(List.of(1L, 2L));
+        given(inferenceRepository.findPurgeableIds(2L, 2L, CUTOFF, PageRequest.ofSize(2))).willReturn(List.of());
+        //when
+        int purged = inferenceHistoryPurgeService.purgeCreatedBefore(CUTOFF);
+        //then
+        assertEquals(2, purged);
+        verify(inferenceRepository, times(1)).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void purgeCreatedBefore_doesNothing_WhenNoRowIsExpired() {
+        //given
+        given(inferenceRepository.findMaxIdCreatedBefore(CUTOFF)).willReturn(Optional.empty());
+        //when
+        int purged = inferenceHistoryPurgeService.purgeCreatedBefore(CUTOFF);
+        //then
+        assertEquals(0, purged);
+        verify(inferenceRepository, never()).findPurgeableIds(any(), any(), any(), any());
+        verify(kafkaPublisher, never()).sendMessage(any(), any());
+    }
+}
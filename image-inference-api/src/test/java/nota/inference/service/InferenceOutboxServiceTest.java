@@ -0,0 +1,195 @@
+package nota.inference.service;
+
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceOutbox;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceOutboxRepository;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceRequestMessage;
+import nota.inference.exception.InferenceException;
+import nota.inference.message.KafkaPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static nota.inference.exception.Error.TOO_MANY_PENDING_INFERENCES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceOutboxServiceTest {
+    @Mock
+    private InferenceOutboxRepository inferenceOutboxRepository;
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private KafkaPublisher kafkaPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InferenceOutboxService inferenceOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        inferenceOutboxService = new InferenceOutboxService(inferenceOutboxRepository, inferenceRepository,
+                kafkaPublisher, transactionManager, 100, 2, 10, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_savesOneEntryPerLeader() {
+        //given
+        Inference leader = Inference.builder()
+                .id(1L)
+                .runtime(Runtime.ONNX)
+                .imageKey("image")
+                .build();
+        //when
+        inferenceOutboxService.enqueue(List.of(leader));
+        //then
+        ArgumentCaptor<Iterable<InferenceOutbox>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(inferenceOutboxRepository, times(1)).saveAll(captor.capture());
+        InferenceOutbox entry = captor.getValue().iterator().next();
+        assertEquals(1L, entry.getInferenceId());
+        assertEquals(Runtime.ONNX, entry.getRuntime());
+        assertEquals("image", entry.getImageKey());
+        assertEquals(0, entry.getAttempts());
+    }
+
+    @Test
+    void checkBacklog_fail_TOO_MANY_PENDING_INFERENCES() {
+        //given
+        given(inferenceOutboxRepository.count()).willReturn(10L);
+        inferenceOutboxService.refreshBacklog();
+        //when
+        InferenceException e = assertThrows(InferenceException.class, () -> inferenceOutboxService.checkBacklog());
+        //then
+        assertEquals(TOO_MANY_PENDING_INFERENCES, e.getError());
+    }
+
+    @Test
+    void checkBacklog_success_WhenBacklogIsBelowLimit() {
+        //given
+        given(inferenceOutboxRepository.count()).willReturn(9L);
+        inferenceOutboxService.refreshBacklog();
+        //when
+        //then
+        assertDoesNotThrow(() -> inferenceOutboxService.checkBacklog());
+    }
+
+    @Test
+    void relayBatch_deletesDeliveredEntries() {
+        //given
+        InferenceOutbox onnx = outbox(1L, 10L, Runtime.ONNX, 0);
+        InferenceOutbox tflite = outbox(2L, 11L, Runtime.TFLITE, 0);
+        given(inferenceOutboxRepository.findRelayBatch(any(), any())).willReturn(List.of(onnx, tflite));
+        given(kafkaPublisher.sendMessages(any(), any())).willReturn(List.of(CompletableFuture.completedFuture(null)));
+        //when
+        int delivered = inferenceOutboxService.relayBatch().delivered();
+        //then
+        assertEquals(2, delivered);
+        verify(kafkaPublisher, times(1)).sendMessages("onnx_inference_request",
+                List.of(InferenceRequestMessage.of(10L, Runtime.ONNX, "image-10")));
+        verify(kafkaPublisher, times(1)).sendMessages("tflite_inference_request",
+                List.of(InferenceRequestMessage.of(11L, Runtime.TFLITE, "image-11")));
+        verify(inferenceOutboxRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(inferenceRepository, times(1)).markDispatched(eq(List.of(10L, 11L)), any());
+        assertNotNull(onnx.getClaimedUntil());
+        verify(inferenceRepository, never()).updateProcessingByIdInOrLeaderIdIn(any(), any(), any(), any());
+    }
+
+    @Test
+    void relayBatch_sendsLowPriorityEntriesOnTheBulkLane() {
+        //given
+        InferenceOutbox high = outbox(1L, 10L, Runtime.ONNX, 0);
+        InferenceOutbox low = InferenceOutbox.builder()
+                .id(2L)
+                .inferenceId(11L)
+                .runtime(Runtime.ONNX)
+                .imageKey("image-11")
+                .priority(Priority.LOW)
+                .build();
+        given(inferenceOutboxRepository.findRelayBatch(any(), any())).willReturn(List.of(high, low));
+        given(kafkaPublisher.sendMessages(any(), any())).willReturn(List.of(CompletableFuture.completedFuture(null)));
+        given(kafkaPublisher.sendBulkMessages(any(), any())).willReturn(List.of(CompletableFuture.completedFuture(null)));
+        //when
+        int delivered = inferenceOutboxService.relayBatch().delivered();
+        //then
+        assertEquals(2, delivered);
+        verify(kafkaPublisher, times(1)).sendMessages("onnx_inference_request",
+                List.of(InferenceRequestMessage.of(10L, Runtime.ONNX, "image-10")));
+        verify(kafkaPublisher, times(1)).sendBulkMessages("onnx_inference_request_low",
+                List.of(InferenceRequestMessage.of(11L, Runtime.ONNX, "image-11")));
+    }
+
+    @Test
+    void relayBatch_keepsEntryForRetry_WhenDeliveryFails() {
+        //given
+        InferenceOutbox entry = outbox(1L, 10L, Runtime.ONNX, 0);
+        given(inferenceOutboxRepository.findRelayBatch(any(), any())).willReturn(List.of(entry));
+        given(kafkaPublisher.sendMessages(any(), any()))
+                .willReturn(List.of(CompletableFuture.failedFuture(new KafkaException("broker unavailable"))));
+        //when
+        int delivered = inferenceOutboxService.relayBatch().delivered();
+        //then
+        assertEquals(0, delivered);
+        assertEquals(1, entry.getAttempts());
+        verify(inferenceOutboxRepository, times(1)).recordFailedAttempts(List.of(1L));
+        verify(inferenceOutboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(inferenceRepository, never()).markDispatched(any(), any());
+        verify(inferenceRepository, never()).updateProcessingByIdInOrLeaderIdIn(any(), any(), any(), any());
+    }
+
+    @Test
+    void relayBatch_returnsUndeliverableInference_WhenAttemptsAreExhausted() {
+        //given
+        InferenceOutbox entry = outbox(1L, 10L, Runtime.ONNX, 1);
+        given(inferenceOutboxRepository.findRelayBatch(any(), any())).willReturn(List.of(entry));
+        given(kafkaPublisher.sendMessages(any(), any()))
+                .willReturn(List.of(CompletableFuture.failedFuture(new KafkaException("broker unavailable"))));
+        //when
+        OutboxRelayResult result = inferenceOutboxService.relayBatch();
+        //then
+        assertEquals(List.of(10L), result.undeliverable());
+        verify(inferenceRepository, never()).updateProcessingByIdInOrLeaderIdIn(any(), any(), any(), any());
+        verify(inferenceOutboxRepository, times(1)).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relayBatch_keepsEntryWithoutAttempt_WhenProducerIsSaturated() {
+        //given
+        InferenceOutbox entry = outbox(1L, 10L, Runtime.ONNX, 0);
+        given(inferenceOutboxRepository.findRelayBatch(any(), any())).willReturn(List.of(entry));
+        given(kafkaPublisher.sendMessages(any(), any())).willThrow(new InferenceException(TOO_MANY_PENDING_INFERENCES));
+        //when
+        int delivered = inferenceOutboxService.relayBatch().delivered();
+        //then
+        assertEquals(0, delivered);
+        assertEquals(0, entry.getAttempts());
+        verify(inferenceOutboxRepository, times(1)).releaseClaims(List.of(1L));
+        verify(inferenceOutboxRepository, never()).recordFailedAttempts(any());
+    }
+
+    private InferenceOutbox outbox(Long id, Long inferenceId, Runtime runtime, int attempts) {
+        return InferenceOutbox.builder()
+                .id(id)
+                .inferenceId(inferenceId)
+                .runtime(runtime)
+                .imageKey("image-" + inferenceId)
+                .attempts(attempts)
+                .build();
+    }
+}
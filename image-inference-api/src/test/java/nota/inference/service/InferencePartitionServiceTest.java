@@ -0,0 +1,104 @@
+package nota.inference.service;
+
+import nota.inference.domain.repository.InferencePartition;
+import nota.inference.domain.repository.InferencePartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferencePartitionServiceTest {
+    private static final LocalDate TODAY = LocalDate.parse("2024-10-10");
+
+    @Mock
+    private InferencePartitionRepository inferencePartitionRepository;
+    @Mock
+    private ImageReclaimService imageReclaimService;
+
+    private InferencePartitionService inferencePartitionService;
+
+    @BeforeEach
+    void setUp() {
+        inferencePartitionService = new InferencePartitionService(inferencePartitionRepository, imageReclaimService, true, 2, Duration.ofDays(30), 100);
+    }
+
+    @Test
+    void createUpcomingPartitions_partitionsTable_WhenNotPartitioned() {
+        //given
+        given(inferencePartitionRepository.findPartitions()).willReturn(List.of());
+        //when
+        inferencePartitionService.createUpcomingPartitions(TODAY);
+        //then
+        verify(inferencePartitionRepository, times(1)).partitionByDay(TODAY,
+                List.of(TODAY, TODAY.plusDays(1), TODAY.plusDays(2)));
+    }
+
+    @Test
+    void createUpcomingPartitions_continuesFromLastPartition() {
+        //given
+        given(inferencePartitionRepository.findPartitions()).willReturn(List.of(
+                InferencePartition.of("p_history", "'2024-10-08'"),
+                InferencePartition.of("p20241008", "'2024-10-09 00:00:00'"),
+                InferencePartition.of("pmax", "MAXVALUE")));
+        //when
+        inferencePartitionService.createUpcomingPartitions(TODAY);
+        //then
+        verify(inferencePartitionRepository, times(1)).addDailyPartitions(
+                List.of(TODAY.minusDays(1), TODAY, TODAY.plusDays(1), TODAY.plusDays(2)));
+    }
+
+    @Test
+    void createUpcomingPartitions_doesNothing_WhenAlreadyCovered() {
+        //given
+        given(inferencePartitionRepository.findPartitions()).willReturn(List.of(
+                InferencePartition.of("p20241012", "'2024-10-13 00:00:00'"),
+                InferencePartition.of("pmax", "MAXVALUE")));
+        //when
+        inferencePartitionService.createUpcomingPartitions(TODAY);
+        //then
+        verify(inferencePartitionRepository, never()).addDailyPartitions(any());
+        verify(inferencePartitionRepository, never()).partitionByDay(any(), any());
+    }
+
+    @Test
+    void dropExpiredPartitions_dropsPartitionsEndingBeforeCutoff() {
+        //given
+        given(inferencePartitionRepository.findPartitions()).willReturn(List.of(
+                InferencePartition.of("p_history", "'2024-09-09'"),
+                InferencePartition.of("p20240909", "'2024-09-10 00:00:00'"),
+                InferencePartition.of("p20240910", "'2024-09-11 00:00:00'"),
+                InferencePartition.of("pmax", "MAXVALUE")));
+        //when
+        int dropped = inferencePartitionService.dropExpiredPartitions(LocalDateTime.parse("2024-09-10T12:00:00"));
+        //then
+        assertEquals(2, dropped);
+        verify(imageReclaimService, times(1)).reclaimCreatedBefore(LocalDateTime.parse("2024-09-10T00:00:00"), 100);
+        verify(inferencePartitionRepository, times(1)).dropPartitions(List.of("p_history", "p20240909"));
+    }
+
+    @Test
+    void dropExpiredPartitions_doesNothing_WhenNothingExpired() {
+        //given
+        given(inferencePartitionRepository.findPartitions()).willReturn(List.of(
+                InferencePartition.of("p20240910", "'2024-09-11 00:00:00'"),
+                InferencePartition.of("pmax", "MAXVALUE")));
+        //when
+        int dropped = inferencePartitionService.dropExpiredPartitions(LocalDateTime.parse("2024-09-10T12:00:00"));
+        //then
+        assertEquals(0, dropped);
+        verify(inferencePartitionRepository, never()).dropPartitions(any());
+        verifyNoInteractions(imageReclaimService);
+    }
+}
@@ -0,0 +1,58 @@
+package nota.inference.service;
+
+import nota.inference.cache.InferenceStatusSnapshot;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InferenceResultNotifierTest {
+    private final InferenceResultNotifier inferenceResultNotifier = new InferenceResultNotifier();
+
+    @Test
+    void publish_wakesEveryListenerOfChangedIdsOnce() {
+        //given
+        List<InferenceStatusSnapshot> received = new ArrayList<>();
+        inferenceResultNotifier.subscribe(1L, received::add);
+        inferenceResultNotifier.subscribe(1L, received::add);
+        inferenceResultNotifier.subscribe(2L, received::add);
+        inferenceResultNotifier.subscribe(3L, received::add);
+        //when
+        inferenceResultNotifier.publish(InferenceStatusChangedMessage.of(List.of(1L, 2L), InferenceStatus.COMPLETE, "apple"));
+        inferenceResultNotifier.publish(InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.COMPLETE, "apple"));
+        //then
+        assertEquals(3, received.size());
+        assertTrue(received.contains(new InferenceStatusSnapshot(2L, InferenceStatus.COMPLETE, "apple")));
+        assertEquals(1, inferenceResultNotifier.waiting());
+    }
+
+    @Test
+    void subscribe_unsubscribeRemovesListener() {
+        //given
+        List<InferenceStatusSnapshot> received = new ArrayList<>();
+        Runnable unsubscribe = inferenceResultNotifier.subscribe(1L, received::add);
+        //when
+        unsubscribe.run();
+        inferenceResultNotifier.publish(InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.COMPLETE, "apple"));
+        //then
+        assertTrue(received.isEmpty());
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
+
+    @Test
+    void publish_wakesListenersWithDeletedSnapshot_WhenInferenceIsDeleted() {
+        //given
+        List<InferenceStatusSnapshot> received = new ArrayList<>();
+        inferenceResultNotifier.subscribe(1L, received::add);
+        //when
+        inferenceResultNotifier.publish(InferenceStatusChangedMessage.ofDeleted(List.of(1L)));
+        //then
+        assertEquals(List.of(InferenceStatusSnapshot.ofDeleted(1L)), received);
+        assertTrue(received.getFirst().isDeleted());
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
+}
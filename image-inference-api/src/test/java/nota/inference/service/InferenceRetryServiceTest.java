@@ -0,0 +1,148 @@
+package nota.inference.service;
+
+import nota.inference.config.KafkaTopicConfig;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceDeadLetterMessage;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceRetryMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.message.KafkaPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceRetryServiceTest {
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private InferenceService inferenceService;
+    @Mock
+    private InferenceOutboxService inferenceOutboxService;
+    @Mock
+    private KafkaPublisher kafkaPublisher;
+
+    private InferenceRetryService inferenceRetryService;
+
+    @BeforeEach
+    void setUp() {
+        inferenceRetryService = new InferenceRetryService(inferenceRepository, inferenceService, inferenceOutboxService,
+                kafkaPublisher, List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void retryOrFail_sendsLeaderToTheTierOfItsAttempt() {
+        //given
+        Inference leader = leader(1L, 1);
+        given(inferenceRepository.findAllById(Set.of(1L))).willReturn(List.of(leader));
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceRetryService.retryOrFail(List.of(new InferenceFailMessage(1L)));
+        //then
+        assertTrue(changes.isEmpty());
+        ArgumentCaptor<InferenceRetryMessage> message = ArgumentCaptor.forClass(InferenceRetryMessage.class);
+        verify(kafkaPublisher, times(1)).sendMessage(eq("inference_retry_30s"), message.capture());
+        assertEquals(2, message.getValue().attempt());
+        assertTrue(message.getValue().dueAt().isAfter(Instant.now().plusSeconds(25)));
+        verify(inferenceRepository, times(1)).markRetried(eq(List.of(1L)), any());
+        verify(inferenceService, never()).markInferencesAsFail(any());
+    }
+
+    @Test
+    void retryOrFail_deadLettersAndFailsLeader_WhenTiersAreExhausted() {
+        //given
+        Inference leader = leader(1L, 3);
+        given(inferenceRepository.findAllById(Set.of(1L))).willReturn(List.of(leader));
+        List<InferenceStatusChangedMessage> failed = List.of(InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.FAIL, null));
+        given(inferenceService.markInferencesAsFail(List.of(new InferenceFailMessage(1L)))).willReturn(failed);
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceRetryService.retryOrFail(List.of(new InferenceFailMessage(1L)));
+        //then
+        assertEquals(failed, changes);
+        verify(kafkaPublisher, times(1)).sendMessage(KafkaTopicConfig.INFERENCE_DEAD_LETTER_TOPIC,
+                new InferenceDeadLetterMessage(1L, Runtime.ONNX, "image-1", 4));
+        verify(kafkaPublisher, never()).sendMessages(any(), any());
+        verify(inferenceRepository, never()).markRetried(any(), any());
+    }
+
+    @Test
+    void retryOrFail_ignoresInferencesThatAreNoLongerProcessing() {
+        //given
+        Inference completed = Inference.builder().id(1L).status(InferenceStatus.COMPLETE).build();
+        given(inferenceRepository.findAllById(Set.of(1L))).willReturn(List.of(completed));
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceRetryService.retryOrFail(List.of(new InferenceFailMessage(1L)));
+        //then
+        assertTrue(changes.isEmpty());
+        verifyNoInteractions(kafkaPublisher);
+    }
+
+    @Test
+    void redispatch_enqueuesLeader_WhenAttemptIsCurrent() {
+        //given
+        Inference leader = leader(1L, 2);
+        given(inferenceRepository.findById(1L)).willReturn(Optional.of(leader));
+        //when
+        boolean redispatched = inferenceRetryService.redispatch(new InferenceRetryMessage(1L, Runtime.ONNX, "image-1", 2, 0, Instant.now()));
+        //then
+        assertTrue(redispatched);
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(leader));
+    }
+
+    @Test
+    void redispatch_skips_WhenLeaderWasRetriedSince() {
+        //given
+        given(inferenceRepository.findById(1L)).willReturn(Optional.of(leader(1L, 3)));
+        //when
+        boolean redispatched = inferenceRetryService.redispatch(new InferenceRetryMessage(1L, Runtime.ONNX, "image-1", 2, 0, Instant.now()));
+        //then
+        assertFalse(redispatched);
+        verify(inferenceOutboxService, never()).enqueue(any());
+    }
+
+    @Test
+    void redispatch_skips_WhenSweeperTookOverSince() {
+        //given
+        Inference leader = Inference.builder()
+                .id(1L)
+                .runtime(Runtime.ONNX)
+                .imageKey("image-1")
+                .status(InferenceStatus.PROCESSING)
+                .retryCount(2)
+                .sweepCount(1)
+                .build();
+        given(inferenceRepository.findById(1L)).willReturn(Optional.of(leader));
+        //when
+        boolean redispatched = inferenceRetryService.redispatch(new InferenceRetryMessage(1L, Runtime.ONNX, "image-1", 2, 0, Instant.now()));
+        //then
+        assertFalse(redispatched);
+        verify(inferenceOutboxService, never()).enqueue(any());
+    }
+
+    private Inference leader(Long id, int retryCount) {
+        return Inference.builder()
+                .id(id)
+                .runtime(Runtime.ONNX)
+                .imageKey("image-" + id)
+                .status(InferenceStatus.PROCESSING)
+                .retryCount(retryCount)
+                .build();
+    }
+}
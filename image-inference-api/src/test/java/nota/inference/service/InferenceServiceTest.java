@@ -1,37 +1,68 @@
 package nota.inference.service;
 
 import jakarta.persistence.criteria.*;
+import nota.inference.cache.InFlightInferenceRegistry;
+import nota.inference.cache.InferenceResultCache;
+import nota.inference.cache.InferenceStatusCache;
+import nota.inference.cache.InferenceStatusSnapshot;
 import nota.inference.domain.model.Inference;
 import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Priority;
 import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceHistoryFilter;
 import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceCallbackMessage;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.dto.message.InferenceSuccessMessage;
+import nota.inference.dto.response.ExecuteBatchInferenceResponse;
 import nota.inference.dto.response.ExecuteInferenceResponse;
+import nota.inference.dto.response.InferenceHistoryCursor;
 import nota.inference.dto.response.InferenceHistoryItem;
+import nota.inference.dto.response.InferenceHistoryResponse;
 import nota.inference.dto.response.InferenceResultResponse;
 import nota.inference.exception.InferenceException;
 import nota.inference.message.KafkaPublisher;
+import nota.inference.routing.RuntimeRouter;
+import nota.inference.storage.ImageStore;
+import nota.inference.webhook.WebhookCallback;
+import nota.inference.webhook.WebhookDispatcher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.*;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static nota.inference.exception.Error.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +70,29 @@ class InferenceServiceTest {
     @Mock
     private InferenceRepository inferenceRepository;
     @Mock
+    private ImageStore imageStore;
+    @Mock
+    private InferenceResultCache inferenceResultCache;
+    @Mock
+    private InFlightInferenceRegistry inFlightInferenceRegistry;
+    @Mock
+    private InferenceOutboxService inferenceOutboxService;
+    @Mock
+    private InferenceStatusCache inferenceStatusCache;
+    @Mock
     private KafkaPublisher kafkaPublisher;
+    @Mock
+    private WebhookDispatcher webhookDispatcher;
+    @Mock
+    private InferenceArchiveService inferenceArchiveService;
+    @Mock
+    private RuntimeRouter runtimeRouter;
+    @Mock
+    private ImageReclaimService imageReclaimService;
+    @Spy
+    private InferenceResultNotifier inferenceResultNotifier = new InferenceResultNotifier();
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     private InferenceService inferenceService;
 
@@ -50,29 +103,265 @@ class InferenceServiceTest {
                 MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
         String runtime = "oNNx";
         String userId = "mock";
-        given(inferenceRepository.save(any())).willReturn(
+        givenSaveAllAssignsIds();
+        //when
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, runtime, userId, null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(InferenceStatus.PROCESSING, saved.getStatus());
+        assertEquals(Runtime.ONNX, saved.getRuntime());
+        assertEquals("apple.JPG", saved.getFileName());
+        assertEquals("36bbe50ed96841d10443bcb670d6554f0a34b761be67ec9c4a8ad2c0c44ca42c", saved.getImageKey());
+        assertNull(saved.getBatchId());
+
+        verify(imageStore, times(1)).save(eq(saved.getImageKey()), eq(file));
+        verify(inFlightInferenceRegistry, times(1)).register(saved.getImageKey(), Runtime.ONNX, 1L);
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(saved));
+
+        assertEquals(1L, response.id());
+    }
+
+    @Test
+    void executeInference_success_RoutesAutoToChosenRuntime() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(runtimeRouter.choose()).willReturn(Runtime.TFLITE);
+        givenSaveAllAssignsIds();
+        //when
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, "AUTO", "mock", null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(Runtime.TFLITE, saved.getRuntime());
+        verify(inFlightInferenceRegistry, times(1)).register(saved.getImageKey(), Runtime.TFLITE, 1L);
+        assertEquals("TFLITE", response.runtime());
+    }
+
+    @Test
+    void executeInference_success_WhenResultIsCached() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inferenceResultCache.get(any(), eq(Runtime.ONNX))).willReturn(Optional.of("apple"));
+        givenSaveAllAssignsIds();
+        //when
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, "onnx", "mock", null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(InferenceStatus.COMPLETE, saved.getStatus());
+        assertEquals("apple", saved.getResult());
+
+        verify(imageStore, never()).save(any(), any());
+        verify(inferenceOutboxService, times(1)).enqueue(List.of());
+
+        assertEquals(1L, response.id());
+    }
+
+    @Test
+    void executeInference_success_DispatchesCallbackWhenResultIsCached() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inferenceResultCache.get(any(), eq(Runtime.ONNX))).willReturn(Optional.of("apple"));
+        givenSaveAllAssignsIds();
+        //when
+        inferenceService.executeInference(file, "onnx", "mock", "http://localhost/callback", "high");
+        //then
+        assertEquals("http://localhost/callback", captureSavedInferences().getFirst().getCallbackUrl());
+        verify(webhookDispatcher, times(1)).dispatch(List.of(new WebhookCallback("http://localhost/callback",
+                InferenceCallbackMessage.of(1L, InferenceStatus.COMPLETE, "apple"))));
+    }
+
+    @Test
+    void executeInference_success_WhenSameImageIsInFlight() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inFlightInferenceRegistry.findLeader(any(), eq(Runtime.ONNX))).willReturn(Optional.of(100L));
+        givenSaveAllAssignsIds();
+        given(inferenceRepository.findAllById(Set.of(100L))).willReturn(List.of(
                 Inference.builder()
-                        .id(1L)
+                        .id(100L)
                         .runtime(Runtime.ONNX)
-                        .userId("mock")
+                        .userId("other")
                         .fileName("apple.jpg")
                         .status(InferenceStatus.PROCESSING)
-                        .build());
+                        .build()));
         //when
-        ExecuteInferenceResponse response = inferenceService.executeInference(file, runtime, userId);
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, "onnx", "mock", null, "high");
         //then
-        ArgumentCaptor<Inference> inferenceArgumentCaptor = ArgumentCaptor.forClass(Inference.class);
-        verify(inferenceRepository, times(1)).save(inferenceArgumentCaptor.capture());
-        Inference saved = inferenceArgumentCaptor.getValue();
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(100L, saved.getLeaderId());
         assertEquals(InferenceStatus.PROCESSING, saved.getStatus());
-        assertEquals(Runtime.ONNX, saved.getRuntime());
-        assertEquals("apple.JPG", saved.getFileName());
 
-        verify(kafkaPublisher, times(1)).sendMessage(eq("onnx_inference_request"), any());
+        verify(imageStore, never()).save(any(), any());
+        verify(inferenceOutboxService, times(1)).enqueue(List.of());
+
+        assertEquals(1L, response.id());
+    }
+
+    @Test
+    void executeInference_success_ResendsLowPriorityLeaderOnHighLane_WhenHighPriorityRequestFollowsIt() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inFlightInferenceRegistry.findLeader(any(), eq(Runtime.ONNX))).willReturn(Optional.of(100L));
+        givenSaveAllAssignsIds();
+        Inference leader = Inference.builder()
+                .id(100L)
+                .runtime(Runtime.ONNX)
+                .userId("other")
+                .fileName("apple.jpg")
+                .status(InferenceStatus.PROCESSING)
+                .priority(Priority.LOW)
+                .build();
+        given(inferenceRepository.findAllById(Set.of(100L))).willReturn(List.of(leader));
+        //when
+        inferenceService.executeInference(file, "onnx", "mock", null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(100L, saved.getLeaderId());
+        assertEquals(Priority.HIGH, saved.getPriority());
+        assertEquals(Priority.HIGH, leader.getPriority());
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(leader));
+    }
+
+    @Test
+    void executeInference_success_WhenInFlightLeaderAlreadyCompleted() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inFlightInferenceRegistry.findLeader(any(), eq(Runtime.ONNX))).willReturn(Optional.of(100L));
+        givenSaveAllAssignsIds();
+        given(inferenceRepository.findAllById(Set.of(100L))).willReturn(List.of(
+                Inference.builder()
+                        .id(100L)
+                        .runtime(Runtime.ONNX)
+                        .userId("other")
+                        .fileName("apple.jpg")
+                        .result("apple")
+                        .status(InferenceStatus.COMPLETE)
+                        .build()));
+        //when
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, "onnx", "mock", null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertEquals(InferenceStatus.COMPLETE, saved.getStatus());
+        assertEquals("apple", saved.getResult());
+        verify(inFlightInferenceRegistry, times(1)).remove(any(), eq(Runtime.ONNX), eq(100L));
+        verify(inferenceOutboxService, times(1)).enqueue(List.of());
 
         assertEquals(1L, response.id());
     }
 
+    @Test
+    void executeInference_success_WhenInFlightLeaderWasDeleted() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        given(inFlightInferenceRegistry.findLeader(any(), eq(Runtime.ONNX))).willReturn(Optional.of(100L));
+        givenSaveAllAssignsIds();
+        given(inferenceRepository.findAllById(Set.of(100L))).willReturn(List.of());
+        //when
+        ExecuteInferenceResponse response = inferenceService.executeInference(file, "onnx", "mock", null, "high");
+        //then
+        Inference saved = captureSavedInferences().getFirst();
+        assertNull(saved.getLeaderId());
+        assertEquals(InferenceStatus.PROCESSING, saved.getStatus());
+        verify(inFlightInferenceRegistry, times(1)).register(saved.getImageKey(), Runtime.ONNX, 1L);
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(saved));
+
+        assertEquals(1L, response.id());
+    }
+
+    @Test
+    void executeBatchInference_success() throws IOException {
+        //given
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("images", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "apple".getBytes()),
+                new MockMultipartFile("images", "dog.png", MediaType.IMAGE_PNG_VALUE, "dog".getBytes()),
+                new MockMultipartFile("images", "apple-copy.jpg", MediaType.IMAGE_JPEG_VALUE, "apple".getBytes()));
+        givenSaveAllAssignsIds();
+        //when
+        ExecuteBatchInferenceResponse response = inferenceService.executeBatchInference(files, "tflite", "mock", null, "high");
+        //then
+        assertNotNull(response.batchId());
+        assertEquals(List.of(1L, 2L, 3L), response.ids());
+
+        List<Inference> saved = captureSavedInferences();
+        assertEquals(3, saved.size());
+        assertTrue(saved.stream().allMatch(inference -> response.batchId().equals(inference.getBatchId())));
+        Inference duplicate = saved.stream().filter(inference -> inference.getId() == 3L).findFirst().orElseThrow();
+        assertEquals(1L, duplicate.getLeaderId());
+
+        verify(imageStore, times(2)).save(any(), any());
+        verify(inferenceOutboxService, times(1)).enqueue(argThat(leaders -> leaders.size() == 2));
+    }
+
+    @Test
+    void executeBatchInference_fail_NOT_ALLOWED_FILE() {
+        //given
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("images", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "apple".getBytes()),
+                new MockMultipartFile("images", "dog.webp", MediaType.MULTIPART_FORM_DATA_VALUE, "dog".getBytes()));
+        //when
+        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.executeBatchInference(files, "onnx", "mock", null, "high"));
+        //then
+        assertEquals(NOT_ALLOWED_FILE, e.getError());
+        verify(inferenceRepository, never()).saveAll(any());
+        verify(inferenceOutboxService, never()).enqueue(any());
+    }
+
+    @Test
+    void executeInference_fail_TOO_MANY_PENDING_INFERENCES() {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes());
+        willThrow(new InferenceException(TOO_MANY_PENDING_INFERENCES)).given(inferenceOutboxService).checkBacklog();
+        //when
+        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.executeInference(file, "onnx", "mock", null, "high"));
+        //then
+        assertEquals(TOO_MANY_PENDING_INFERENCES, e.getError());
+        verifyNoInteractions(imageStore);
+        verify(inferenceRepository, never()).saveAll(any());
+        verify(inferenceOutboxService, never()).enqueue(any());
+    }
+
+    @Test
+    void executeInference_fail_ReclaimsStoredImage_WhenTransactionRollsBack() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes());
+        given(inferenceRepository.saveAll(anyIterable())).willThrow(new IllegalStateException("connection lost"));
+        //when
+        assertThrows(IllegalStateException.class, () -> inferenceService.executeInference(file, "onnx", "mock", null, "high"));
+        //then
+        verify(imageStore, times(1)).save(eq("36bbe50ed96841d10443bcb670d6554f0a34b761be67ec9c4a8ad2c0c44ca42c"), eq(file));
+        verify(imageReclaimService, times(1)).reclaim(Set.of("36bbe50ed96841d10443bcb670d6554f0a34b761be67ec9c4a8ad2c0c44ca42c"));
+        verify(inFlightInferenceRegistry, never()).register(any(), any(), any());
+        verify(inferenceOutboxService, never()).enqueue(any());
+    }
+
+    private void givenSaveAllAssignsIds() {
+        AtomicLong sequence = new AtomicLong();
+        given(inferenceRepository.saveAll(anyIterable())).willAnswer(invocation -> {
+            List<Inference> inferences = new ArrayList<>();
+            invocation.<Iterable<Inference>>getArgument(0).forEach(inferences::add);
+            inferences.stream()
+                    .filter(inference -> inference.getId() == null)
+                    .forEach(inference -> ReflectionTestUtils.setField(inference, "id", sequence.incrementAndGet()));
+            return inferences;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Inference> captureSavedInferences() {
+        ArgumentCaptor<Iterable<Inference>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(inferenceRepository, atLeastOnce()).saveAll(captor.capture());
+        List<Inference> saved = new ArrayList<>();
+        captor.getAllValues().forEach(inferences -> inferences.forEach(saved::add));
+        return saved.stream().distinct().toList();
+    }
 
     @Test
     void executeInference_fail_NOT_ALLOWED_FILE() throws IOException {
@@ -82,75 +371,228 @@ class InferenceServiceTest {
         String runtime = "oNNx";
         String userId = "mock";
         //when
-        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.executeInference(file, runtime, userId));
+        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.executeInference(file, runtime, userId, null, "high"));
         //then
         assertEquals(NOT_ALLOWED_FILE, e.getError());
     }
 
 
     @Test
-    void markInferenceAsComplete_success() {
+    void markInferencesAsComplete_success() {
         //given
-        Inference inference = Inference.builder()
-                .id(1L)
+        Inference apple = processingInference(1L, "apple-image");
+        Inference banana = processingInference(2L, "banana-image");
+        Inference otherApple = processingInference(3L, "other-apple-image");
+        Inference appleFollower = Inference.builder()
+                .id(5L)
                 .runtime(Runtime.ONNX)
-                .userId("mock")
-                .fileName("apple.jpg")
+                .imageKey("apple-image")
+                .leaderId(1L)
                 .status(InferenceStatus.PROCESSING)
                 .build();
-        given(inferenceRepository.findById(any())).willReturn(Optional.of(inference));
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L, 2L, 3L, 4L)))
+                .willReturn(List.of(apple, banana, otherApple, appleFollower));
         //when
-        inferenceService.markInferenceAsComplete(1L, "apple");
+        List<InferenceStatusChangedMessage> changes = inferenceService.markInferencesAsComplete(List.of(
+                new InferenceSuccessMessage(1L, "apple"),
+                new InferenceSuccessMessage(2L, "banana"),
+                new InferenceSuccessMessage(3L, "apple"),
+                new InferenceSuccessMessage(4L, "apple")));
         //then
-        assertEquals("apple", inference.getResult());
-        assertEquals(InferenceStatus.COMPLETE, inference.getStatus());
+        verify(inferenceRepository, times(1))
+                .updateProcessingByIdInOrLeaderIdIn(eq(List.of(1L, 3L)), eq(InferenceStatus.COMPLETE), eq("apple"), any());
+        verify(inferenceRepository, times(1))
+                .updateProcessingByIdInOrLeaderIdIn(eq(List.of(2L)), eq(InferenceStatus.COMPLETE), eq("banana"), any());
+        verify(inferenceResultCache, times(1)).put("apple-image", Runtime.ONNX, "apple");
+        verify(inferenceResultCache, times(1)).put("banana-image", Runtime.ONNX, "banana");
+        verify(inferenceResultCache, times(1)).put("other-apple-image", Runtime.ONNX, "apple");
+        verify(inFlightInferenceRegistry, times(1)).remove("apple-image", Runtime.ONNX, 1L);
+        verify(inFlightInferenceRegistry, times(1)).remove("banana-image", Runtime.ONNX, 2L);
+        verify(inFlightInferenceRegistry, times(1)).remove("other-apple-image", Runtime.ONNX, 3L);
+        assertEquals(2, changes.size());
+        assertTrue(changes.contains(InferenceStatusChangedMessage.of(List.of(1L, 5L, 3L), InferenceStatus.COMPLETE, "apple")));
+        assertTrue(changes.contains(InferenceStatusChangedMessage.of(List.of(2L), InferenceStatus.COMPLETE, "banana")));
     }
 
     @Test
-    void markInferenceAsComplete_fail_INFERENCE_NOT_FOUND() {
+    void markInferencesAsComplete_success_DispatchesCallbacks() {
         //given
-        Inference inference = Inference.builder()
-                .id(1L)
+        Inference apple = processingInference(1L, "apple-image");
+        Inference appleFollower = Inference.builder()
+                .id(5L)
                 .runtime(Runtime.ONNX)
-                .userId("mock")
-                .fileName("apple.jpg")
-                .result("apple")
-                .status(InferenceStatus.COMPLETE)
+                .imageKey("apple-image")
+                .leaderId(1L)
+                .callbackUrl("http://localhost/callback")
+                .status(InferenceStatus.PROCESSING)
                 .build();
-        given(inferenceRepository.findById(any())).willReturn(Optional.of(inference));
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L))).willReturn(List.of(apple, appleFollower));
         //when
-        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.markInferenceAsComplete(1L, "apple"));
+        inferenceService.markInferencesAsComplete(List.of(new InferenceSuccessMessage(1L, "apple")));
         //then
-        assertEquals(INFERENCE_NOT_FOUND, e.getError());
+        verify(webhookDispatcher, times(1)).dispatch(List.of(new WebhookCallback("http://localhost/callback",
+                InferenceCallbackMessage.of(5L, InferenceStatus.COMPLETE, "apple"))));
     }
 
     @Test
-    void markInferenceAsFail_success() {
+    void markInferencesAsComplete_success_WhenNoInferenceIsProcessing() {
         //given
-        Inference inference = Inference.builder()
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L))).willReturn(List.of());
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceService.markInferencesAsComplete(List.of(new InferenceSuccessMessage(1L, "apple")));
+        //then
+        assertTrue(changes.isEmpty());
+        verify(inferenceRepository, never()).updateProcessingByIdInOrLeaderIdIn(any(), any(), any(), any());
+        verify(inferenceResultCache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    void markInferencesAsFail_success() {
+        //given
+        Inference apple = processingInference(1L, "apple-image");
+        Inference banana = processingInference(2L, "banana-image");
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L, 2L, 3L))).willReturn(List.of(apple, banana));
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceService.markInferencesAsFail(List.of(
+                new InferenceFailMessage(1L), new InferenceFailMessage(2L), new InferenceFailMessage(3L)));
+        //then
+        assertEquals(List.of(InferenceStatusChangedMessage.of(List.of(1L, 2L), InferenceStatus.FAIL, null)), changes);
+        verify(inferenceRepository, times(1))
+                .updateProcessingByIdInOrLeaderIdIn(eq(List.of(1L, 2L)), eq(InferenceStatus.FAIL), isNull(), any());
+        verify(inFlightInferenceRegistry, times(1)).remove("apple-image", Runtime.ONNX, 1L);
+        verify(inFlightInferenceRegistry, times(1)).remove("banana-image", Runtime.ONNX, 2L);
+    }
+
+    @Test
+    void markInferencesAsFail_success_DispatchesCallbacks() {
+        //given
+        Inference apple = Inference.builder()
                 .id(1L)
                 .runtime(Runtime.ONNX)
+                .imageKey("apple-image")
+                .callbackUrl("http://localhost/callback")
+                .status(InferenceStatus.PROCESSING)
+                .build();
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L))).willReturn(List.of(apple));
+        //when
+        inferenceService.markInferencesAsFail(List.of(new InferenceFailMessage(1L)));
+        //then
+        verify(webhookDispatcher, times(1)).dispatch(List.of(new WebhookCallback("http://localhost/callback",
+                InferenceCallbackMessage.of(1L, InferenceStatus.FAIL, null))));
+    }
+
+    @Test
+    void markInferencesAsFail_success_WhenNoInferenceIsProcessing() {
+        //given
+        given(inferenceRepository.findProcessingByIdInOrLeaderIdIn(Set.of(1L))).willReturn(List.of());
+        //when
+        List<InferenceStatusChangedMessage> changes = inferenceService.markInferencesAsFail(List.of(new InferenceFailMessage(1L)));
+        //then
+        assertTrue(changes.isEmpty());
+        verify(inferenceRepository, never()).updateProcessingByIdInOrLeaderIdIn(any(), any(), any(), any());
+    }
+
+    private Inference processingInference(Long id, String imageKey) {
+        return Inference.builder()
+                .id(id)
+                .runtime(Runtime.ONNX)
                 .userId("mock")
                 .fileName("apple.jpg")
+                .imageKey(imageKey)
                 .status(InferenceStatus.PROCESSING)
                 .build();
-        given(inferenceRepository.findById(any())).willReturn(Optional.of(inference));
+    }
+
+    @Test
+    void waitForInferenceResult_success_WhenStatusChangesWhileWaiting() throws Exception {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null)));
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30));
+        //when
+        inferenceService.applyStatusChanges(List.of(InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.COMPLETE, "apple")));
+        //then
+        InferenceResultResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals("apple", response.result());
+        assertFalse(response.isProcessing());
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
+
+    @Test
+    void waitForInferenceResult_success_WhenInferenceIsAlreadyComplete() {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple")));
+        //when
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30));
+        //then
+        assertTrue(future.isDone());
+        assertEquals("apple", future.join().result());
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
+
+    @Test
+    void waitForInferenceResult_success_ReturnsProcessingWhenWaitElapses() throws Exception {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null)));
         //when
-        inferenceService.markInferenceAsFail(1L);
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofMillis(10));
         //then
-        assertEquals(InferenceStatus.FAIL, inference.getStatus());
+        assertTrue(future.get(1, TimeUnit.SECONDS).isProcessing());
+        assertEquals(0, inferenceResultNotifier.waiting());
     }
 
     @Test
-    void markInferenceAsFail_fail_INFERENCE_NOT_FOUND() {
+    void waitForInferenceResult_fail_INFERENCE_EXECUTION_FAILED() {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null)));
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30));
+        //when
+        inferenceService.applyStatusChanges(List.of(InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.FAIL, null)));
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertEquals(INFERENCE_EXECUTION_FAILED, ((InferenceException) e.getCause()).getError());
+    }
+
+    @Test
+    void waitForInferenceResult_fail_INFERENCE_NOT_FOUND() {
         //given
         given(inferenceRepository.findById(any())).willReturn(Optional.empty());
         //when
-        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.markInferenceAsFail(1L));
+        InferenceException e = assertThrows(InferenceException.class,
+                () -> inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30)));
         //then
         assertEquals(INFERENCE_NOT_FOUND, e.getError());
+        assertEquals(0, inferenceResultNotifier.waiting());
     }
 
+    @Test
+    void waitForInferenceResult_fail_INFERENCE_NOT_FOUND_WhenDeletedWhileWaiting() {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null)));
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30));
+        //when
+        inferenceService.applyStatusChanges(List.of(InferenceStatusChangedMessage.ofDeleted(List.of(1L))));
+        //then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertEquals(INFERENCE_NOT_FOUND, ((InferenceException) e.getCause()).getError());
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
+
+    @Test
+    void waitForInferenceResult_unsubscribesWhenCancelled() {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.PROCESSING, null)));
+        CompletableFuture<InferenceResultResponse> future = inferenceService.waitForInferenceResult(1L, Duration.ofSeconds(30));
+        //when
+        future.cancel(false);
+        //then
+        assertEquals(0, inferenceResultNotifier.waiting());
+    }
 
     @Test
     void getInferenceResultById_success_WhenInferenceIsComplete() {
@@ -170,6 +612,21 @@ class InferenceServiceTest {
         assertEquals(1L, response.id());
         assertEquals("apple", response.result());
         assertFalse(response.isProcessing());
+        verify(inferenceStatusCache, times(1)).put(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple"));
+    }
+
+    @Test
+    void getInferenceResultById_success_WhenStatusIsCached() {
+        //given
+        given(inferenceStatusCache.get(1L))
+                .willReturn(Optional.of(new InferenceStatusSnapshot(1L, InferenceStatus.COMPLETE, "apple")));
+        //when
+        InferenceResultResponse response = inferenceService.getInferenceResultById(1L);
+        //then
+        assertEquals(1L, response.id());
+        assertEquals("apple", response.result());
+        assertFalse(response.isProcessing());
+        verify(inferenceRepository, never()).findById(any());
     }
 
     @Test
@@ -209,6 +666,21 @@ class InferenceServiceTest {
     }
 
 
+    @Test
+    void publishStatusChanges_appliesLocallyAndBroadcastsOutsideTheInFlightBound() {
+        //given
+        InferenceStatusChangedMessage complete = InferenceStatusChangedMessage.of(List.of(1L), InferenceStatus.COMPLETE, "apple");
+        InferenceStatusChangedMessage fail = InferenceStatusChangedMessage.of(List.of(2L), InferenceStatus.FAIL, null);
+        //when
+        inferenceService.publishStatusChanges(List.of(complete, fail));
+        //then
+        verify(inferenceStatusCache, times(1)).apply(complete);
+        verify(inferenceStatusCache, times(1)).apply(fail);
+        verify(kafkaPublisher, times(1)).sendMessage("inference_status_changed", complete);
+        verify(kafkaPublisher, times(1)).sendMessage("inference_status_changed", fail);
+        verify(kafkaPublisher, never()).sendMessages(any(), any());
+    }
+
     @Test
     void deleteInference_success() {
         //given
@@ -225,6 +697,8 @@ class InferenceServiceTest {
         inferenceService.deleteInference(1L, "mock");
         //then
         verify(inferenceRepository, times(1)).delete((Inference) any());
+        verify(inferenceStatusCache, times(1)).invalidate(1L);
+        verify(kafkaPublisher, times(1)).sendMessage("inference_status_changed", InferenceStatusChangedMessage.ofDeleted(List.of(1L)));
     }
 
     @Test
@@ -259,38 +733,39 @@ class InferenceServiceTest {
     @Test
     void getInferenceHistory_success() {
         //given
-        int page = 0;
         int size = 10;
         String userId = "mock";
         String createdAt = "2024-10-02T14:23:00";
         String runtime = "onnx";
-        Pageable pageable = PageRequest.of(page, size);
-        given(inferenceRepository.findAll(any(Specification.class), eq(pageable)))
-                .willReturn(new PageImpl<>(
-                        List.of(
-                                Inference.builder()
-                                        .id(1L)
-                                        .runtime(Runtime.ONNX)
-                                        .userId("mock")
-                                        .fileName("apple.jpg")
-                                        .result("apple")
-                                        .status(InferenceStatus.COMPLETE)
-                                        .build(),
-                                Inference.builder()
-                                        .id(2L)
-                                        .runtime(Runtime.ONNX)
-                                        .userId("mock")
-                                        .fileName("dog.jpg")
-                                        .result("dog")
-                                        .status(InferenceStatus.PROCESSING)
-                                        .build()
-                        )
-                ));
-        //when
-        Slice<InferenceHistoryItem> result = inferenceService.getInferenceHistory(
-                page, size, Optional.of(userId), Optional.of(createdAt), Optional.of(runtime));
-        //then
-        List<InferenceHistoryItem> items = result.getContent();
+        InferenceHistoryFilter filter = InferenceHistoryFilter.builder()
+                .userId("mock")
+                .runtime(Runtime.ONNX)
+                .createdFrom(LocalDateTime.parse("2024-10-02T14:00:00"))
+                .createdTo(LocalDateTime.parse("2024-10-02T15:00:00"))
+                .build();
+        given(inferenceRepository.findHistory(filter, size + 1)).willReturn(List.of(
+                InferenceHistoryItem.from(Inference.builder()
+                        .id(1L)
+                        .runtime(Runtime.ONNX)
+                        .userId("mock")
+                        .fileName("apple.jpg")
+                        .result("apple")
+                        .status(InferenceStatus.COMPLETE)
+                        .build()),
+                InferenceHistoryItem.from(Inference.builder()
+                        .id(2L)
+                        .runtime(Runtime.ONNX)
+                        .userId("mock")
+                        .fileName("dog.jpg")
+                        .result("dog")
+                        .status(InferenceStatus.PROCESSING)
+                        .build())
+        ));
+        //when
+        InferenceHistoryResponse result = inferenceService.getInferenceHistory(
+                Optional.empty(), size, Optional.of(userId), Optional.of(createdAt), Optional.of(runtime));
+        //then
+        List<InferenceHistoryItem> items = result.content();
         assertEquals(1L, items.getFirst().id());
         assertEquals("ONNX", items.getFirst().runtime());
         assertEquals("apple.jpg", items.getFirst().fileName());
@@ -302,6 +777,80 @@ class InferenceServiceTest {
         assertEquals("dog.jpg", items.getLast().fileName());
         assertEquals("mock", items.getLast().userId());
         assertEquals("PROCESSING", items.getLast().status());
+
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getInferenceHistory_success_ReturnsCursorOfLastItemWhenMoreRowsExist() {
+        //given
+        Inference newer = processingInference(2L, "apple-image");
+        Inference older = processingInference(1L, "banana-image");
+        ReflectionTestUtils.setField(newer, "createdAt", LocalDateTime.parse("2024-10-02T14:23:01"));
+        ReflectionTestUtils.setField(older, "createdAt", LocalDateTime.parse("2024-10-02T14:23:00"));
+        given(inferenceRepository.findHistory(InferenceHistoryFilter.builder().build(), 2))
+                .willReturn(List.of(InferenceHistoryItem.from(newer), InferenceHistoryItem.from(older)));
+        //when
+        InferenceHistoryResponse result = inferenceService.getInferenceHistory(
+                Optional.empty(), 1, Optional.empty(), Optional.empty(), Optional.empty());
+        //then
+        assertEquals(1, result.content().size());
+        assertTrue(result.hasNext());
+        assertEquals(new InferenceHistoryCursor(LocalDateTime.parse("2024-10-02T14:23:01"), 2L),
+                InferenceHistoryCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void getInferenceHistory_success_MergesArchivedRowsIntoPage() {
+        //given
+        Inference hot = processingInference(3L, "apple-image");
+        Inference hotOlder = processingInference(1L, "banana-image");
+        ReflectionTestUtils.setField(hot, "createdAt", LocalDateTime.parse("2024-10-02T14:23:03"));
+        ReflectionTestUtils.setField(hotOlder, "createdAt", LocalDateTime.parse("2024-10-02T14:23:00"));
+        InferenceHistoryItem archived = InferenceHistoryItem.builder()
+                .id(2L)
+                .runtime("ONNX")
+                .status("COMPLETE")
+                .createdAt(LocalDateTime.parse("2024-10-02T14:23:01"))
+                .build();
+        InferenceHistoryFilter filter = InferenceHistoryFilter.builder().build();
+        given(inferenceRepository.findHistory(filter, 2))
+                .willReturn(List.of(InferenceHistoryItem.from(hot), InferenceHistoryItem.from(hotOlder)));
+        given(inferenceArchiveService.findHistory(filter, 2, LocalDateTime.parse("2024-10-02T14:23:00")))
+                .willReturn(List.of(archived));
+        //when
+        InferenceHistoryResponse result = inferenceService.getInferenceHistory(
+                Optional.empty(), 1, Optional.empty(), Optional.empty(), Optional.empty());
+        //then
+        assertEquals(List.of(3L), result.content().stream().map(InferenceHistoryItem::id).toList());
+        assertTrue(result.hasNext());
+        assertEquals(new InferenceHistoryCursor(LocalDateTime.parse("2024-10-02T14:23:03"), 3L),
+                InferenceHistoryCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void getInferenceHistory_success_WithCursor() {
+        //given
+        String cursor = new InferenceHistoryCursor(LocalDateTime.parse("2024-10-02T14:23:01"), 2L).encode();
+        //when
+        inferenceService.getInferenceHistory(Optional.of(cursor), 10, Optional.empty(), Optional.empty(), Optional.empty());
+        //then
+        verify(inferenceRepository, times(1)).findHistory(InferenceHistoryFilter.builder()
+                .cursorCreatedAt(LocalDateTime.parse("2024-10-02T14:23:01"))
+                .cursorId(2L)
+                .build(), 11);
+    }
+
+    @Test
+    void getInferenceHistory_fail_INVALID_CURSOR() {
+        //given
+        //when
+        InferenceException e = assertThrows(InferenceException.class, () -> inferenceService.getInferenceHistory(
+                Optional.of("not-a-cursor"), 10, Optional.empty(), Optional.empty(), Optional.empty()));
+        //then
+        assertEquals(INVALID_CURSOR, e.getError());
+        verify(inferenceRepository, never()).findHistory(any(), anyInt());
     }
 
 
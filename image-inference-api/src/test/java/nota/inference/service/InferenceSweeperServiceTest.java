@@ -0,0 +1,168 @@
+package nota.inference.service;
+
+import nota.inference.cache.InFlightInferenceRegistry;
+import nota.inference.domain.model.Inference;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.domain.model.Priority;
+import nota.inference.domain.model.Runtime;
+import nota.inference.domain.repository.InferenceRepository;
+import nota.inference.dto.message.InferenceFailMessage;
+import nota.inference.dto.message.InferenceStatusChangedMessage;
+import nota.inference.dto.message.InferenceSuccessMessage;
+import nota.inference.routing.WorkerPickupTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InferenceSweeperServiceTest {
+    private static final LocalDateTime DEADLINE = LocalDateTime.parse("2024-10-02T14:00:00");
+    private static final LocalDateTime PICKED_UP_BEFORE = DEADLINE.minusMinutes(5);
+
+    @Mock
+    private InferenceRepository inferenceRepository;
+    @Mock
+    private InferenceService inferenceService;
+    @Mock
+    private InferenceOutboxService inferenceOutboxService;
+    @Mock
+    private InFlightInferenceRegistry inFlightInferenceRegistry;
+    @Mock
+    private WorkerPickupTracker workerPickupTracker;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InferenceSweeperService inferenceSweeperService;
+
+    @BeforeEach
+    void setUp() {
+        inferenceSweeperService = new InferenceSweeperService(inferenceRepository, inferenceService, inferenceOutboxService,
+                inFlightInferenceRegistry, workerPickupTracker, transactionManager,
+                Map.of(Runtime.ONNX, Duration.ofMinutes(2), Runtime.TFLITE, Duration.ofMinutes(1)), Duration.ofSeconds(30), 100, 2);
+    }
+
+    @Test
+    void sweepExpiredLeaders_republishesRetryableAndFailsExhausted() {
+        //given
+        Inference retryable = leader(1L, 1);
+        Inference exhausted = leader(2L, 2);
+        given(workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.HIGH, DEADLINE)).willReturn(Optional.of(PICKED_UP_BEFORE));
+        given(inferenceRepository.findExpiredLeaders(eq(Runtime.ONNX), eq(Priority.HIGH), eq(PICKED_UP_BEFORE), any()))
+                .willReturn(List.of(retryable, exhausted));
+        List<InferenceStatusChangedMessage> changes = List.of(InferenceStatusChangedMessage.of(List.of(2L), InferenceStatus.FAIL, null));
+        given(inferenceService.markInferencesAsFail(List.of(new InferenceFailMessage(2L)))).willReturn(changes);
+        //when
+        int swept = inferenceSweeperService.sweepExpiredLeaders(Runtime.ONNX, Priority.HIGH, DEADLINE);
+        //then
+        assertEquals(2, swept);
+        verify(inferenceRepository, times(1)).markSwept(eq(List.of(1L)), any());
+        verify(inferenceRepository, never()).markRetried(any(), any());
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(retryable));
+        verify(inFlightInferenceRegistry, times(1)).register("image-1", Runtime.ONNX, 1L);
+        verify(inferenceService, times(1)).publishStatusChanges(changes);
+    }
+
+    @Test
+    void sweepExpiredLeaders_doesNothing_WhenNothingExpired() {
+        //given
+        given(workerPickupTracker.pickedUpBefore(Runtime.TFLITE, Priority.LOW, DEADLINE)).willReturn(Optional.of(PICKED_UP_BEFORE));
+        given(inferenceRepository.findExpiredLeaders(eq(Runtime.TFLITE), eq(Priority.LOW), eq(PICKED_UP_BEFORE), any())).willReturn(List.of());
+        //when
+        int swept = inferenceSweeperService.sweepExpiredLeaders(Runtime.TFLITE, Priority.LOW, DEADLINE);
+        //then
+        assertEquals(0, swept);
+        verify(inferenceOutboxService, never()).enqueue(any());
+        verify(inferenceService, never()).markInferencesAsFail(any());
+    }
+
+    @Test
+    void sweepExpiredLeaders_skipsLane_UntilWorkersPickedUpItsBacklog() {
+        //given
+        given(workerPickupTracker.pickedUpBefore(Runtime.ONNX, Priority.LOW, DEADLINE)).willReturn(Optional.empty());
+        //when
+        int swept = inferenceSweeperService.sweepExpiredLeaders(Runtime.ONNX, Priority.LOW, DEADLINE);
+        //then
+        assertEquals(0, swept);
+        verify(inferenceRepository, never()).findExpiredLeaders(any(), any(), any(), any());
+    }
+
+    @Test
+    void sweepOrphanedFollowers_resolvesFromLeaderOrPromotes() {
+        //given
+        Inference completedLeader = leader(1L, 0);
+        completedLeader.complete("apple");
+        Inference failedLeader = leader(2L, 0);
+        failedLeader.fail();
+        Inference ofCompleted = follower(11L, 1L);
+        Inference ofFailed = follower(12L, 2L);
+        Inference ofMissing = follower(13L, 3L);
+        Inference ofMissingToo = follower(14L, 3L);
+        given(inferenceRepository.findOrphanedFollowers(eq(DEADLINE), any()))
+                .willReturn(List.of(ofCompleted, ofFailed, ofMissing, ofMissingToo));
+        given(inferenceRepository.findAllById(any())).willReturn(List.of(completedLeader, failedLeader));
+        //when
+        int swept = inferenceSweeperService.sweepOrphanedFollowers(DEADLINE);
+        //then
+        assertEquals(4, swept);
+        verify(inferenceService, times(1)).markInferencesAsComplete(List.of(new InferenceSuccessMessage(11L, "apple")));
+        verify(inferenceService, times(1)).markInferencesAsFail(List.of(new InferenceFailMessage(12L)));
+        assertNull(ofMissing.getLeaderId());
+        assertEquals(13L, ofMissingToo.getLeaderId());
+        verify(inferenceRepository, times(1)).saveAll(List.of(ofMissing, ofMissingToo));
+        verify(inferenceOutboxService, times(1)).enqueue(List.of(ofMissing));
+    }
+
+    @Test
+    void sweep_usesRuntimeTimeouts() {
+        //given
+        given(workerPickupTracker.pickedUpBefore(any(), any(), any())).willAnswer(invocation -> Optional.of(invocation.getArgument(2)));
+        given(inferenceRepository.findExpiredLeaders(any(), any(), any(), any())).willReturn(List.of());
+        given(inferenceRepository.findOrphanedFollowers(any(), any())).willReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+        //when
+        inferenceSweeperService.sweep();
+        //then
+        for (Priority priority : Priority.values()) {
+            verify(inferenceRepository).findExpiredLeaders(eq(Runtime.ONNX), eq(priority),
+                    argThat(deadline -> !deadline.isBefore(before.minusMinutes(2)) && deadline.isBefore(before.minusSeconds(100))), any());
+            verify(inferenceRepository).findExpiredLeaders(eq(Runtime.TFLITE), eq(priority),
+                    argThat(deadline -> !deadline.isBefore(before.minusMinutes(1)) && deadline.isBefore(before.minusSeconds(50))), any());
+        }
+    }
+
+    private Inference leader(Long id, int sweepCount) {
+        return Inference.builder()
+                .id(id)
+                .runtime(Runtime.ONNX)
+                .imageKey("image-" + id)
+                .status(InferenceStatus.PROCESSING)
+                .retryCount(3)
+                .sweepCount(sweepCount)
+                .build();
+    }
+
+    private Inference follower(Long id, Long leaderId) {
+        return Inference.builder()
+                .id(id)
+                .runtime(Runtime.ONNX)
+                .imageKey("image-" + leaderId)
+                .status(InferenceStatus.PROCESSING)
+                .leaderId(leaderId)
+                .build();
+    }
+}
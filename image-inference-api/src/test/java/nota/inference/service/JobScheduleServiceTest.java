@@ -0,0 +1,152 @@
+package nota.inference.service;
+
+import nota.inference.domain.model.JobSchedule;
+import nota.inference.domain.repository.JobScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobScheduleServiceTest {
+    private static final String JOB = "job";
+
+    @Mock
+    private JobScheduleRepository jobScheduleRepository;
+    @Mock
+    private TaskScheduler taskScheduler;
+    @Mock
+    private ScheduledFuture<?> renewal;
+
+    private JobScheduleService jobScheduleService;
+    private final AtomicReference<Runnable> renewTask = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        jobScheduleService = new JobScheduleService(jobScheduleRepository, taskScheduler, "pod-1", Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCronExpression_returnsStoredCron() {
+        //given
+        given(jobScheduleRepository.findById(JOB)).willReturn(Optional.of(JobSchedule.of(JOB, "0 30 3 * * *")));
+        //when
+        String cronExpression = jobScheduleService.getCronExpression(JOB, "0 0 12 * * *");
+        //then
+        assertEquals("0 30 3 * * *", cronExpression);
+        verify(jobScheduleRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void getCronExpression_returnsCronOfOtherInstance_WhenRegisteredConcurrently() {
+        //given
+        given(jobScheduleRepository.findById(JOB))
+                .willReturn(Optional.empty())
+                .willReturn(Optional.of(JobSchedule.of(JOB, "0 30 3 * * *")));
+        given(jobScheduleRepository.saveAndFlush(any())).willThrow(new DataIntegrityViolationException("duplicate"));
+        //when
+        String cronExpression = jobScheduleService.getCronExpression(JOB, "0 0 12 * * *");
+        //then
+        assertEquals("0 30 3 * * *", cronExpression);
+    }
+
+    @Test
+    void runExclusively_runsJobAndKeepsLeaseForMinimum_WhenLockIsAcquired() {
+        //given
+        given(jobScheduleRepository.acquireLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(1);
+        captureRenewal();
+        Runnable job = mock(Runnable.class);
+        //when
+        boolean ran = jobScheduleService.runExclusively(JOB, job);
+        //then
+        assertTrue(ran);
+        verify(job, times(1)).run();
+        ArgumentCaptor<LocalDateTime> lockedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobScheduleRepository, times(1)).releaseLock(eq(JOB), eq("pod-1"), lockedUntil.capture());
+        assertTrue(lockedUntil.getValue().isAfter(LocalDateTime.now().plusSeconds(30)));
+        verify(renewal, times(1)).cancel(false);
+    }
+
+    @Test
+    void runExclusively_skipsJob_WhenLockIsHeldElsewhere() {
+        //given
+        given(jobScheduleRepository.acquireLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(0);
+        Runnable job = mock(Runnable.class);
+        //when
+        boolean ran = jobScheduleService.runExclusively(JOB, job);
+        //then
+        assertFalse(ran);
+        verify(job, never()).run();
+        verify(jobScheduleRepository, never()).releaseLock(any(), any(), any());
+    }
+
+    @Test
+    void runExclusively_releasesLock_WhenJobFails() {
+        //given
+        given(jobScheduleRepository.acquireLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(1);
+        captureRenewal();
+        //when
+        assertThrows(IllegalStateException.class, () -> jobScheduleService.runExclusively(JOB, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        //then
+        verify(jobScheduleRepository, times(1)).releaseLock(eq(JOB), eq("pod-1"), any());
+    }
+
+    @Test
+    void runExclusively_extendsLease_WhileJobRuns() {
+        //given
+        given(jobScheduleRepository.acquireLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(1);
+        given(jobScheduleRepository.extendLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(1);
+        captureRenewal();
+        //when
+        boolean ran = jobScheduleService.runExclusively(JOB, () -> renewTask.get().run());
+        //then
+        assertTrue(ran);
+        verify(jobScheduleRepository, times(1)).extendLock(eq(JOB), eq("pod-1"), any(), any());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void runExclusively_interruptsAndFailsJob_WhenLeaseIsLost() {
+        //given
+        given(jobScheduleRepository.acquireLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(1);
+        given(jobScheduleRepository.extendLock(eq(JOB), eq("pod-1"), any(), any())).willReturn(0);
+        captureRenewal();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        //when
+        assertThrows(IllegalStateException.class, () -> jobScheduleService.runExclusively(JOB, () -> {
+            renewTask.get().run();
+            interrupted.set(Thread.currentThread().isInterrupted());
+        }));
+        //then
+        assertTrue(interrupted.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+        verify(jobScheduleRepository, never()).releaseLock(any(), any(), any());
+    }
+
+    private void captureRenewal() {
+        doAnswer(invocation -> {
+            renewTask.set(invocation.getArgument(0));
+            return renewal;
+        }).when(taskScheduler).scheduleAtFixedRate(any(Runnable.class), any(Instant.class), any(Duration.class));
+    }
+}
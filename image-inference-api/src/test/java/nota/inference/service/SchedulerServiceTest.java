@@ -2,6 +2,7 @@ package nota.inference.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -12,16 +13,26 @@ import org.springframework.scheduling.support.CronTrigger;
 import java.lang.reflect.Field;
 import java.util.concurrent.ScheduledFuture;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 class SchedulerServiceTest {
     @Mock
     private TaskScheduler taskScheduler;
     @Mock
-    private InferenceService inferenceService;
+    private InferenceHistoryPurgeService inferenceHistoryPurgeService;
+    @Mock
+    private InferencePartitionService inferencePartitionService;
+    @Mock
+    private JobScheduleService jobScheduleService;
+    @Mock
+    private InferenceArchiveService inferenceArchiveService;
+    @Mock
+    private InferenceSweeperService inferenceSweeperService;
     @InjectMocks
     private SchedulerService schedulerService;
 
@@ -44,7 +55,98 @@ class SchedulerServiceTest {
         // when
         schedulerService.updateInferenceHistoryDeleteSchedule(cronExpression);
         // then
+        verify(jobScheduleService, times(1)).updateCronExpression(SchedulerService.INFERENCE_HISTORY_DELETE_JOB, cronExpression);
         verify(futureTask, times(1)).cancel(false);
         verify(taskScheduler, times(1)).schedule(any(Runnable.class), eq(new CronTrigger(cronExpression)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void syncInferenceHistoryDeleteSchedule_reschedules_WhenStoredCronChanged() {
+        // given
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        given(jobScheduleService.getCronExpression(eq(SchedulerService.INFERENCE_HISTORY_DELETE_JOB), any())).willReturn("0 30 3 * * *");
+        // when
+        schedulerService.syncInferenceHistoryDeleteSchedule();
+        // then
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), eq(new CronTrigger("0 30 3 * * *")));
+    }
+
+    @Test
+    void syncInferenceHistoryDeleteSchedule_keepsSchedule_WhenStoredCronIsUnchanged() {
+        // given
+        ScheduledFuture<?> scheduled = Mockito.mock(ScheduledFuture.class);
+        doReturn(scheduled).when(taskScheduler).schedule(any(Runnable.class), any(CronTrigger.class));
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        given(jobScheduleService.getCronExpression(eq(SchedulerService.INFERENCE_HISTORY_DELETE_JOB), any())).willReturn("0 0 12 * * *");
+        // when
+        schedulerService.syncInferenceHistoryDeleteSchedule();
+        // then
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(CronTrigger.class));
+        verify(scheduled, never()).cancel(anyBoolean());
+    }
+
+    @Test
+    void inferenceHistoryDeleteSchedule_skips_WhenAnotherInstanceHoldsTheLock() {
+        // given
+        given(jobScheduleService.runExclusively(eq(SchedulerService.INFERENCE_HISTORY_DELETE_JOB), any())).willReturn(false);
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(CronTrigger.class));
+        // when
+        task.getValue().run();
+        // then
+        verify(inferenceHistoryPurgeService, never()).purgeExpiredHistory();
+        verify(inferencePartitionService, never()).dropExpiredPartitions();
+    }
+
+    @Test
+    void inferenceHistoryDeleteSchedule_dropsPartitions_WhenPartitioningIsEnabled() {
+        // given
+        given(inferencePartitionService.isEnabled()).willReturn(true);
+        runJobsImmediately();
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(CronTrigger.class));
+        // when
+        task.getValue().run();
+        // then
+        verify(inferencePartitionService, times(1)).dropExpiredPartitions();
+        verify(inferenceHistoryPurgeService, never()).purgeExpiredHistory();
+    }
+
+    @Test
+    void inferenceHistoryDeleteSchedule_purgesInChunks_WhenPartitioningIsDisabled() {
+        // given
+        given(inferencePartitionService.isEnabled()).willReturn(false);
+        runJobsImmediately();
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(CronTrigger.class));
+        // when
+        task.getValue().run();
+        // then
+        verify(inferenceHistoryPurgeService, times(1)).purgeExpiredHistory();
+        verify(inferencePartitionService, never()).dropExpiredPartitions();
+    }
+
+    @Test
+    void inferenceHistoryDeleteSchedule_logsFailure_WhenPurgeThrows() {
+        // given
+        given(inferencePartitionService.isEnabled()).willReturn(false);
+        willThrow(new IllegalStateException("lock wait timeout")).given(inferenceHistoryPurgeService).purgeExpiredHistory();
+        runJobsImmediately();
+        schedulerService.updateInferenceHistoryDeleteSchedule("0 0 12 * * *");
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(CronTrigger.class));
+        // when
+        // then
+        assertDoesNotThrow(() -> task.getValue().run());
+    }
+
+    private void runJobsImmediately() {
+        given(jobScheduleService.runExclusively(any(), any())).willAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package nota.inference.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageStoreTest {
+    @TempDir
+    private Path root;
+
+    @Test
+    void save_writesImageUnderShardedKey() throws IOException {
+        //given
+        LocalImageStore imageStore = new LocalImageStore(root);
+        String key = "ab" + "c".repeat(62);
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes());
+        //when
+        imageStore.save(key, file);
+        //then
+        Path stored = root.resolve("ab").resolve(key);
+        assertArrayEquals("abcde".getBytes(), Files.readAllBytes(stored));
+        try (var files = Files.list(stored.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void save_keepsExistingImage_WhenKeyAlreadyStored() throws IOException {
+        //given
+        LocalImageStore imageStore = new LocalImageStore(root);
+        String key = "ab" + "c".repeat(62);
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes()));
+        //when
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "other".getBytes()));
+        //then
+        assertArrayEquals("abcde".getBytes(), Files.readAllBytes(imageStore.resolve(key)));
+    }
+
+    @Test
+    void delete_removesStoredImagesAndIgnoresMissingOnes() throws IOException {
+        //given
+        LocalImageStore imageStore = new LocalImageStore(root);
+        String key = "ab" + "c".repeat(62);
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg",
+                MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes()));
+        //when
+        imageStore.delete(List.of(key, "cd" + "e".repeat(62)));
+        //then
+        assertFalse(Files.exists(imageStore.resolve(key)));
+    }
+}
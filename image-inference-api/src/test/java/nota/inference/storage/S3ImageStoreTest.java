@@ -0,0 +1,95 @@
+package nota.inference.storage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class S3ImageStoreTest {
+    private static final String BUCKET = "inference-images";
+
+    @Container
+    private static final MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2024-10-13T13-34-11Z");
+
+    private static S3Client s3Client;
+    private S3ImageStore imageStore;
+    private String key;
+
+    @BeforeAll
+    static void setUpBucket() {
+        s3Client = S3Client.builder()
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(minio.getUserName(), minio.getPassword())))
+                .forcePathStyle(true)
+                .build();
+        s3Client.createBucket(builder -> builder.bucket(BUCKET));
+    }
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new S3ImageStore(s3Client, BUCKET);
+        key = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void save_putsImageUnderKey() throws IOException {
+        //given
+        MockMultipartFile file = new MockMultipartFile("image", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes());
+        //when
+        imageStore.save(key, file);
+        //then
+        assertTrue(imageStore.exists(key));
+        assertArrayEquals("abcde".getBytes(), read(key));
+    }
+
+    @Test
+    void save_keepsExistingImage_WhenKeyAlreadyStored() throws IOException {
+        //given
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes()));
+        //when
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "other".getBytes()));
+        //then
+        assertArrayEquals("abcde".getBytes(), read(key));
+    }
+
+    @Test
+    void exists_isFalse_WhenKeyIsNotStored() {
+        //when
+        boolean exists = imageStore.exists(key);
+        //then
+        assertFalse(exists);
+    }
+
+    @Test
+    void delete_removesStoredImagesAndIgnoresMissingOnes() throws IOException {
+        //given
+        imageStore.save(key, new MockMultipartFile("image", "apple.jpg", MediaType.IMAGE_JPEG_VALUE, "abcde".getBytes()));
+        //when
+        imageStore.delete(List.of(key, "missing"));
+        //then
+        assertFalse(imageStore.exists(key));
+    }
+
+    private byte[] read(String key) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder().bucket(BUCKET).key(key).build()).asByteArray();
+    }
+}
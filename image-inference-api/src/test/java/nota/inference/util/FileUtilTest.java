@@ -5,6 +5,7 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -56,4 +57,14 @@ class FileUtilTest {
         assertTrue(maybeFileExtension.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getContentHash_returnsSha256Hex() throws IOException {
+        //given
+        MultipartFile file = new MockMultipartFile("image", "apple.jpg",
+                MediaType.MULTIPART_FORM_DATA_VALUE, "abcde".getBytes());
+        //when
+        String contentHash = FileUtil.getContentHash(file);
+        //then
+        assertEquals("36bbe50ed96841d10443bcb670d6554f0a34b761be67ec9c4a8ad2c0c44ca42c", contentHash);
+    }
+}
@@ -0,0 +1,237 @@
+package nota.inference.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import nota.inference.domain.model.InferenceStatus;
+import nota.inference.dto.message.InferenceCallbackMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookDispatcherTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private HttpServer server;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private volatile IntSupplier responseStatus = () -> 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try (exchange) {
+                received.add(exchange.getRequestURI().getPath() + " " + new String(exchange.getRequestBody().readAllBytes()));
+                Thread.sleep(20);
+                exchange.sendResponseHeaders(responseStatus.getAsInt(), -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void dispatch_postsCallbacksForTheSameUrlAsOneBatch() throws Exception {
+        //given
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 3);
+        //when
+        webhookDispatcher.dispatch(List.of(
+                callback("/a", 1L, "apple"),
+                callback("/a", 2L, "banana"),
+                callback("/b", 3L, "apple")));
+        //then
+        awaitRequests(2);
+        assertTrue(received.contains("/a " + objectMapper.writeValueAsString(List.of(
+                InferenceCallbackMessage.of(1L, InferenceStatus.COMPLETE, "apple"),
+                InferenceCallbackMessage.of(2L, InferenceStatus.COMPLETE, "banana")))));
+        assertTrue(received.contains("/b " + objectMapper.writeValueAsString(List.of(
+                InferenceCallbackMessage.of(3L, InferenceStatus.COMPLETE, "apple")))));
+    }
+
+    @Test
+    void dispatch_limitsConcurrentRequestsPerHost() throws Exception {
+        //given
+        WebhookDispatcher webhookDispatcher = dispatcher(1, 3);
+        //when
+        webhookDispatcher.dispatch(List.of(
+                callback("/a", 1L, "apple"),
+                callback("/b", 2L, "apple"),
+                callback("/c", 3L, "apple")));
+        //then
+        awaitRequests(3);
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    void dispatch_retriesFailedDeliveries() throws Exception {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        responseStatus = () -> attempts.incrementAndGet() < 3 ? 503 : 200;
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 5);
+        //when
+        webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+        //then
+        awaitRequests(3);
+        Thread.sleep(200);
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    void dispatch_givesUpAfterMaxAttempts() throws Exception {
+        //given
+        responseStatus = () -> 500;
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 2);
+        //when
+        webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+        //then
+        awaitRequests(2);
+        Thread.sleep(200);
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    void dispatch_doesNotRetryRejectedDeliveries() throws Exception {
+        //given
+        responseStatus = () -> 400;
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 5);
+        //when
+        webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+        //then
+        awaitRequests(1);
+        Thread.sleep(200);
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void dispatch_waitsForCommit_WhenCalledInsideTransaction() throws Exception {
+        //given
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+            Thread.sleep(100);
+            //then
+            assertTrue(received.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            awaitRequests(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void dispatch_dropsCallbacks_WhenTransactionRollsBack() throws Exception {
+        //given
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        //then
+        Thread.sleep(100);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void dispatch_refusesPrivateHosts_WhenNotAllowListed() throws Exception {
+        //given
+        WebhookDispatcher webhookDispatcher = new WebhookDispatcher(objectMapper, taskScheduler, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                4, 100, 5, Duration.ofMillis(10), Duration.ofMillis(100), List.of());
+        //when
+        webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+        //then
+        Thread.sleep(100);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void dispatch_refusesConnection_WhenHostRebindsToAPrivateAddressAfterTheCheck() throws Exception {
+        //given
+        AtomicInteger lookups = new AtomicInteger();
+        WebhookTargetPolicy targetPolicy = new WebhookTargetPolicy(List.of()) {
+            @Override
+            InetAddress[] lookup(String host) throws UnknownHostException {
+                return lookups.getAndIncrement() == 0
+                        ? new InetAddress[]{InetAddress.getByName("93.184.215.14")}
+                        : InetAddress.getAllByName(host);
+            }
+        };
+        WebhookDispatcher webhookDispatcher = new WebhookDispatcher(objectMapper, taskScheduler, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                4, 100, 1, Duration.ofMillis(10), Duration.ofMillis(100), targetPolicy);
+        //when
+        webhookDispatcher.dispatch(List.of(callback("/a", 1L, "apple")));
+        //then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lookups.get() < 2 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        Thread.sleep(100);
+        assertTrue(lookups.get() >= 2);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void backoff_doublesUpToMaxBackoff() {
+        //given
+        WebhookDispatcher webhookDispatcher = dispatcher(4, 5);
+        //when
+        //then
+        assertEquals(Duration.ofMillis(10), webhookDispatcher.backoff(1));
+        assertEquals(Duration.ofMillis(40), webhookDispatcher.backoff(3));
+        assertEquals(Duration.ofMillis(100), webhookDispatcher.backoff(10));
+    }
+
+    private WebhookDispatcher dispatcher(int maxConcurrencyPerHost, int maxAttempts) {
+        return new WebhookDispatcher(objectMapper, taskScheduler, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                maxConcurrencyPerHost, 100, maxAttempts, Duration.ofMillis(10), Duration.ofMillis(100), List.of("localhost"));
+    }
+
+    private WebhookCallback callback(String path, Long id, String result) {
+        return new WebhookCallback("http://localhost:" + server.getAddress().getPort() + path,
+                InferenceCallbackMessage.of(id, InferenceStatus.COMPLETE, result));
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < count && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertTrue(received.size() >= count);
+    }
+}
@@ -0,0 +1,106 @@
+package nota.inference.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookTargetPolicyTest {
+
+    @Test
+    void isPublic_rejectsInternalRanges() throws UnknownHostException {
+        //given
+        List<String> internal = List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "0.0.0.0", "100.64.0.1", "198.18.0.1", "255.255.255.255", "::1", "fe80::1", "fd00:ec2::254", "64:ff9b::a9fe:a9fe");
+        //when
+        //then
+        for (String address : internal)
+            assertFalse(WebhookTargetPolicy.isPublic(InetAddress.getByName(address)), address);
+    }
+
+    @Test
+    void isPublic_acceptsPublicAddresses() throws UnknownHostException {
+        //given
+        List<String> external = List.of("93.184.215.14", "8.8.8.8", "2606:2800:21f:cb07:6820:80da:af6b:8b2c", "64:ff9b::808:808");
+        //when
+        //then
+        for (String address : external)
+            assertTrue(WebhookTargetPolicy.isPublic(InetAddress.getByName(address)), address);
+    }
+
+    @Test
+    void isAllowed_rejectsHost_WhenAnyResolvedAddressIsInternal() {
+        //given
+        WebhookTargetPolicy policy = policy(List.of(), "93.184.215.14", "10.0.0.1");
+        //when
+        boolean allowed = policy.isAllowed(URI.create("https://example.com/callback"));
+        //then
+        assertFalse(allowed);
+    }
+
+    @Test
+    void isAllowed_acceptsHost_WhenEveryResolvedAddressIsPublic() {
+        //given
+        WebhookTargetPolicy policy = policy(List.of(), "93.184.215.14");
+        //when
+        boolean allowed = policy.isAllowed(URI.create("https://example.com/callback"));
+        //then
+        assertTrue(allowed);
+    }
+
+    @Test
+    void isAllowed_trustsAllowListedHostsAndSubdomains() {
+        //given
+        WebhookTargetPolicy policy = policy(List.of("callback.internal", ".svc.cluster.local"), "10.0.0.1");
+        //when
+        //then
+        assertTrue(policy.isAllowed(URI.create("http://callback.internal/a")));
+        assertTrue(policy.isAllowed(URI.create("http://hooks.default.svc.cluster.local/a")));
+        assertFalse(policy.isAllowed(URI.create("http://other.internal/a")));
+    }
+
+    @Test
+    void resolve_refusesHost_WhenItRebindsToAnInternalAddressAfterTheCheck() throws UnknownHostException {
+        //given
+        AtomicInteger lookups = new AtomicInteger();
+        WebhookTargetPolicy policy = new WebhookTargetPolicy(List.of()) {
+            @Override
+            InetAddress[] lookup(String host) throws UnknownHostException {
+                String address = lookups.getAndIncrement() == 0 ? "93.184.215.14" : "169.254.169.254";
+                return new InetAddress[]{InetAddress.getByName(address)};
+            }
+        };
+        //when
+        boolean allowed = policy.isAllowed(URI.create("https://example.com/callback"));
+        //then
+        assertTrue(allowed);
+        assertThrows(UnknownHostException.class, () -> policy.resolve("example.com"));
+    }
+
+    @Test
+    void resolve_returnsInternalAddresses_WhenHostIsAllowListed() throws UnknownHostException {
+        //given
+        WebhookTargetPolicy policy = policy(List.of("callback.internal"), "10.0.0.1");
+        //when
+        InetAddress[] addresses = policy.resolve("callback.internal");
+        //then
+        assertArrayEquals(new InetAddress[]{InetAddress.getByName("10.0.0.1")}, addresses);
+    }
+
+    private WebhookTargetPolicy policy(List<String> allowedHosts, String... addresses) {
+        return new WebhookTargetPolicy(allowedHosts) {
+            @Override
+            InetAddress[] lookup(String host) throws UnknownHostException {
+                InetAddress[] resolved = new InetAddress[addresses.length];
+                for (int i = 0; i < addresses.length; i++)
+                    resolved[i] = InetAddress.getByName(addresses[i]);
+                return resolved;
+            }
+        };
+    }
+}
@@ -9,4 +9,6 @@ with open(CONFIG_FILE_PATH, "r") as file:
 
 KAFKA_BOOTSTRAP_SERVERS = CONFIG['kafka']['bootstrap_servers']
 KAFKA_GROUP_ID = CONFIG['kafka']['group_id']
-KAFKA_TOPICS = CONFIG['kafka']['topics']
\ No newline at end of file
+KAFKA_TOPICS = CONFIG['kafka']['topics']
+KAFKA_LOW_PRIORITY_TOPICS = CONFIG['kafka']['low_priority_topics']
+IMAGE_STORE = CONFIG['image_store']
@@ -0,0 +1,29 @@
+import os
+from config import IMAGE_STORE
+
+_s3_client = None
+
+
+def _load_local(key):
+    path = os.path.join(IMAGE_STORE['local_root'], key[:2], key)
+    with open(path, 'rb') as file:
+        return file.read()
+
+
+def _load_s3(key):
+    global _s3_client
+    if _s3_client is None:
+        import boto3
+        _s3_client = boto3.client(
+            's3',
+            endpoint_url=IMAGE_STORE['s3_endpoint'],
+            aws_access_key_id=IMAGE_STORE['s3_access_key'],
+            aws_secret_access_key=IMAGE_STORE['s3_secret_key'],
+        )
+    return _s3_client.get_object(Bucket=IMAGE_STORE['s3_bucket'], Key=key)['Body'].read()
+
+
+def load_image(key):
+    if IMAGE_STORE['type'] == 's3':
+        return _load_s3(key)
+    return _load_local(key)
@@ -5,9 +5,10 @@ import asyncio
 from service import run_inference
 from confluent_kafka import Producer, Consumer, KafkaError
 from contextlib import asynccontextmanager
-from config import KAFKA_BOOTSTRAP_SERVERS, KAFKA_GROUP_ID, KAFKA_TOPICS
+from config import KAFKA_BOOTSTRAP_SERVERS, KAFKA_GROUP_ID, KAFKA_TOPICS, KAFKA_LOW_PRIORITY_TOPICS
+from image_store import load_image
 import json
-import base64
+from message import parse_inference_request
 
 app = FastAPI()
 
@@ -21,7 +22,11 @@ consumer_conf = {
     'group.id': KAFKA_GROUP_ID
 }
 consumer = Consumer(consumer_conf)
-consumer.subscribe(KAFKA_TOPICS)
+consumer.subscribe(KAFKA_TOPICS + KAFKA_LOW_PRIORITY_TOPICS)
+
+
+def low_priority_partitions():
+    return [partition for partition in consumer.assignment() if partition.topic in KAFKA_LOW_PRIORITY_TOPICS]
 
 
 @asynccontextmanager
@@ -34,7 +39,12 @@ app = FastAPI(lifespan=lifespan)
 
 async def consume_messages():
     while True:
-        msg = consumer.poll(1.0)
+        # the low priority lane is paused and only resumed while nothing is waiting on the high priority lane
+        consumer.pause(low_priority_partitions())
+        msg = consumer.poll(0.1)
+        if msg is None:
+            consumer.resume(low_priority_partitions())
+            msg = consumer.poll(0.9)
         if msg is None:
             await asyncio.sleep(1)
             continue
@@ -44,13 +54,15 @@ async def consume_messages():
             else:
                 print(f"Consumer error: {msg.error()}")
                 break
-        message_data = json.loads(msg.value().decode('utf-8'))
-        inference_id = message_data['id']
+        inference_id = None
         try:
-            file_content = base64.b64decode(message_data['fileContent'])
-            await predict(file_content, inference_id)
+            request = parse_inference_request(msg.value())
+            inference_id = request['id']
+            await predict(load_image(request['image_key']), inference_id)
         except Exception as e:
             print(f"Error in processing message: {e}")
+            if inference_id is None:
+                continue
 
             publishing_message = {"id": inference_id}
             message_str = json.dumps(publishing_message)
@@ -0,0 +1,23 @@
+import struct
+
+SUPPORTED_VERSION = 2
+
+
+def _read_string(value, offset):
+    (length,) = struct.unpack_from('>H', value, offset)
+    offset += 2
+    return value[offset:offset + length].decode('utf-8'), offset + length
+
+
+def parse_inference_request(value):
+    version, inference_id = struct.unpack_from('>bq', value, 0)
+    if version != SUPPORTED_VERSION:
+        raise ValueError(f"Unsupported inference request version: {version}")
+    offset = 9
+    runtime, offset = _read_string(value, offset)
+    image_key, offset = _read_string(value, offset)
+    return {
+        'id': inference_id,
+        'runtime': runtime,
+        'image_key': image_key,
+    }